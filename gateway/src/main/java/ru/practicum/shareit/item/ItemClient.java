@@ -9,6 +9,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -33,12 +35,19 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    public ResponseEntity<Object> getItems(long userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getItems(long userId, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "size", size
+        ));
+        return get(withCursor("/" + itemId + "/comments?size={size}", parameters, cursor), userId, parameters);
     }
 
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
@@ -49,13 +58,45 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchText(long userId, String text, int from, int size) {
+    public ResponseEntity<Object> suggest(long userId, String prefix, int size) {
         Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> searchText(long userId, String text, LocalDateTime start, LocalDateTime end,
+                                             boolean fuzzy, Double lat, Double lon, Double radius,
+                                             int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
+        ));
+        String path = "/search?text={text}&from={from}&size={size}";
+        if (start != null && end != null) {
+            parameters.put("start", start);
+            parameters.put("end", end);
+            path += "&start={start}&end={end}";
+        }
+        if (lat != null && lon != null && radius != null) {
+            parameters.put("lat", lat);
+            parameters.put("lon", lon);
+            parameters.put("radius", radius);
+            path += "&lat={lat}&lon={lon}&radius={radius}";
+        }
+        if (fuzzy) {
+            parameters.put("fuzzy", true);
+            path += "&fuzzy={fuzzy}";
+        }
+        return get(withCursor(path, parameters, cursor), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getTrending(long userId, int size) {
+        Map<String, Object> parameters = Map.of(
+                "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/trending?size={size}", userId, parameters);
     }
 }
-
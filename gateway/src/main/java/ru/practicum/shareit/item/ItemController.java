@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -9,8 +10,13 @@ import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
@@ -33,6 +39,15 @@ public class ItemController {
         return itemClient.createComment(itemId, userId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                              @Positive @PathVariable long itemId,
+                                              @Positive @Max(100) @RequestParam(defaultValue = "10") int size,
+                                              @RequestParam(required = false) String cursor) {
+        log.info("Get comments of item {}, userId={}, size={}, cursor={}", itemId, userId, size, cursor);
+        return itemClient.getComments(userId, itemId, size, cursor);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
                                              @Positive @PathVariable long itemId,
@@ -51,18 +66,48 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getItems(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
                                            @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                           @Positive @RequestParam(defaultValue = "10") int size) {
-        log.info("Get items with userId={}, from={}, size={}", userId, from, size);
-        return itemClient.getItems(userId, from, size);
+                                           @Positive @RequestParam(defaultValue = "10") int size,
+                                           @RequestParam(required = false) String cursor) {
+        log.info("Get items with userId={}, from={}, size={}, cursor={}", userId, from, size, cursor);
+        return itemClient.getItems(userId, from, size, cursor);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                          @NotBlank @RequestParam String prefix,
+                                          @Positive @Max(10) @RequestParam(defaultValue = "10") int size) {
+        return itemClient.suggest(userId, prefix, size);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam String text,
+                                              @RequestParam(defaultValue = "") String text,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @RequestParam(defaultValue = "false") boolean fuzzy,
+                                              @DecimalMin("-90") @DecimalMax("90") @RequestParam(required = false) Double lat,
+                                              @DecimalMin("-180") @DecimalMax("180") @RequestParam(required = false) Double lon,
+                                              @Positive @DecimalMax("500") @RequestParam(required = false) Double radius,
                                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                              @Positive @RequestParam(defaultValue = "10") int size) {
-        log.info("Get search items with userId={}, from={}, size={}", userId, from, size);
-        return itemClient.searchText(userId, text, from, size);
+                                              @Positive @RequestParam(defaultValue = "10") int size,
+                                              @RequestParam(required = false) String cursor) {
+        if ((start == null) != (end == null)) {
+            throw new IllegalArgumentException("Для поиска свободных вещей нужно указать и start, и end.");
+        }
+        if (start != null && !end.isAfter(start)) {
+            throw new IllegalArgumentException("end должен быть позже start.");
+        }
+        if ((lat == null) != (lon == null) || (lat == null) != (radius == null)) {
+            throw new IllegalArgumentException("Для поиска рядом нужно указать lat, lon и radius.");
+        }
+        log.info("Get search items with userId={}, start={}, end={}, fuzzy={}, lat={}, lon={}, radius={}, from={}, size={}, cursor={}",
+                userId, start, end, fuzzy, lat, lon, radius, from, size, cursor);
+        return itemClient.searchText(userId, text, start, end, fuzzy, lat, lon, radius, from, size, cursor);
     }
-}
 
+    @GetMapping("/trending")
+    public ResponseEntity<Object> getTrending(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                              @Positive @Max(100) @RequestParam(defaultValue = "10") int size) {
+        return itemClient.getTrending(userId, size);
+    }
+}
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.validation.Create;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -30,4 +32,12 @@ public class ItemDto {
     Boolean available;
 
     Long requestId;
+
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    Double latitude;
+
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    Double longitude;
 }
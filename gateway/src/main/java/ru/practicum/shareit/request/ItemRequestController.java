@@ -33,15 +33,17 @@ public class ItemRequestController {
     @GetMapping
     public ResponseEntity<Object> getRequestsByUserId(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
                                                       @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                      @Positive @RequestParam(defaultValue = "10") int size) {
-        return requestClient.getRequestsByUser(userId, from, size);
+                                                      @Positive @RequestParam(defaultValue = "10") int size,
+                                                      @RequestParam(required = false) String cursor) {
+        return requestClient.getRequestsByUser(userId, from, size, cursor);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                 @Positive @RequestParam(defaultValue = "10") int size) {
-        return requestClient.getAllRequests(userId, from, size);
+                                                 @Positive @RequestParam(defaultValue = "10") int size,
+                                                 @RequestParam(required = false) String cursor) {
+        return requestClient.getAllRequests(userId, from, size, cursor);
     }
 }
 
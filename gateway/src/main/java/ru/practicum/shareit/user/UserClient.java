@@ -3,15 +3,25 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
+    public static final String NDJSON = "application/x-ndjson";
     private static final String API_PREFIX = "/users";
+    private static final int DEFAULT_PAGE_SIZE = 10;
 
     @Autowired
     public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -23,10 +33,26 @@ public class UserClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public ResponseEntity<Object> getUsers(Integer size, String cursor) {
+        if (size == null && cursor == null) {
+            return get("");
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size == null ? DEFAULT_PAGE_SIZE : size);
+        return get(withCursor("?size={size}", parameters, cursor), null, parameters);
     }
 
+    /**
+     * Копирует выгрузку пользователей с сервера в out по мере получения, не буферизуя ответ целиком.
+     */
+    public void exportUsers(OutputStream out) {
+        rest.execute("/export", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.parseMediaType(NDJSON))),
+                response -> {
+                    StreamUtils.copy(response.getBody(), out);
+                    return null;
+                });
+    }
 
     public ResponseEntity<Object> createUser(UserDto userDto) {
         return post("", userDto);
@@ -43,4 +69,12 @@ public class UserClient extends BaseClient {
     public ResponseEntity<Object> deleteUser(long userId) {
         return delete("/" + userId);
     }
+
+    public ResponseEntity<Object> deleteUserAsync(long userId) {
+        return delete("/" + userId + "?async=true");
+    }
+
+    public ResponseEntity<Object> getDeletion(long userId) {
+        return get("/" + userId + "/deletion");
+    }
 }
@@ -2,12 +2,15 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 
 @Slf4j
@@ -37,9 +40,17 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        log.info("Get users");
-        return userClient.getUsers();
+    public ResponseEntity<Object> getUsers(@Positive @Max(100) @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) String cursor) {
+        log.info("Get users size={}, cursor={}", size, cursor);
+        return userClient.getUsers(size, cursor);
+    }
+
+    @GetMapping(value = "/export", produces = UserClient.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Export users");
+        StreamingResponseBody body = userClient::exportUsers;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(UserClient.NDJSON)).body(body);
     }
 
     @DeleteMapping("/{userId}")
@@ -47,5 +58,17 @@ public class UserController {
         log.info("Delete user userId={}", id);
         return userClient.deleteUser(id);
     }
+
+    @DeleteMapping(value = "/{userId}", params = "async=true")
+    public ResponseEntity<Object> deleteUserAsync(@Positive @PathVariable("userId") long id) {
+        log.info("Delete user asynchronously userId={}", id);
+        return userClient.deleteUserAsync(id);
+    }
+
+    @GetMapping("/{userId}/deletion")
+    public ResponseEntity<Object> getDeletion(@Positive @PathVariable("userId") long id) {
+        log.info("Get user deletion progress userId={}", id);
+        return userClient.getDeletion(id);
+    }
 }
 
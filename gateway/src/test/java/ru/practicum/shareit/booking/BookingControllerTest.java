@@ -17,6 +17,7 @@ import org.springframework.web.util.NestedServletException;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
@@ -51,7 +52,7 @@ class BookingControllerTest {
     @DisplayName("Метод getBookings")
     @Test
     void getBookings_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getBookings(anyLong(), any(), anyInt(), anyInt()))
+        when(client.getBookings(anyLong(), any(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(bookingDto));
 
         mvc.perform(get("/bookings")
@@ -66,7 +67,7 @@ class BookingControllerTest {
     @DisplayName("Метод getAllBookingByOwner")
     @Test
     void getAllBookingByOwner_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getBookingsByOwner(anyLong(), any(), anyInt(), anyInt()))
+        when(client.getBookingsByOwner(anyLong(), any(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(bookingDto));
 
         mvc.perform(get("/bookings/owner")
@@ -124,6 +125,34 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @DisplayName("Метод updateBookings")
+    @Test
+    void updateBookings_compareResult_whenObjectIsCorrect() throws Exception {
+        when(client.updateBookings(anyLong(), any()))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(new BookingDecisionDto(List.of(1L, 2L), true)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("Метод updateBookings без бронирований")
+    @Test
+    void updateBookings_returnBadRequest_whenIdsEmpty() throws Exception {
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(new BookingDecisionDto(List.of(), true)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @DisplayName("Метод bookItem")
     @Test
     void bookItem_compareResult_whenObjectIsCorrect() throws Exception {
@@ -141,6 +170,23 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @DisplayName("Метод bookItems")
+    @Test
+    void bookItems_compareResult_whenObjectIsCorrect() throws Exception {
+        when(client.bookItems(anyLong(), anyList()))
+                .thenReturn(ResponseEntity.ok(List.of(bookingDto)));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.registerModule(new JavaTimeModule())
+                                .writeValueAsString(List.of(bookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
     @DisplayName("Метод getBooking")
     @Test
     void getBooking_compareResult_whenObjectIsCorrect() throws Exception {
@@ -12,9 +12,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.util.NestedServletException;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,7 +44,7 @@ class ItemControllerTest {
                 .standaloneSetup(controller)
                 .build();
 
-        itemDto = new ItemDto(1L, "name", "desc", true, 1L);
+        itemDto = new ItemDto(1L, "name", "desc", true, 1L, null, null);
     }
 
     @DisplayName("Метод createItem")
@@ -80,7 +83,7 @@ class ItemControllerTest {
     @DisplayName("Метод updateItem")
     @Test
     void updateItem_compareResult_whenObjectIsCorrect() throws Exception {
-        itemDto = new ItemDto(null, "name", null, null, null);
+        itemDto = new ItemDto(null, "name", null, null, null, null, null);
         when(client.updateItem(anyLong(), anyLong(), any()))
                 .thenReturn(ResponseEntity.ok(itemDto));
 
@@ -112,7 +115,7 @@ class ItemControllerTest {
     @DisplayName("Метод getItems")
     @Test
     void getItems_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getItems(anyLong(), anyInt(), anyInt()))
+        when(client.getItems(anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(itemDto));
 
         mvc.perform(get("/items")
@@ -127,7 +130,7 @@ class ItemControllerTest {
     @DisplayName("Метод searchItems")
     @Test
     void searchItems_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.searchText(anyLong(), anyString(), anyInt(), anyInt()))
+        when(client.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), any(), any(), any(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(itemDto));
 
         mvc.perform(get("/items/search?text=desc")
@@ -138,4 +141,93 @@ class ItemControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @DisplayName("Метод searchItems с периодом")
+    @Test
+    void searchItems_compareResult_whenPeriodSet() throws Exception {
+        when(client.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), any(), any(), any(), anyInt(), anyInt(), any()))
+                .thenReturn(ResponseEntity.ok(itemDto));
+
+        mvc.perform(get("/items/search?text=desc&start=2030-01-01T12:00:00&end=2030-01-03T12:00:00")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("Метод searchItems рядом с точкой")
+    @Test
+    void searchItems_compareResult_whenNearby() throws Exception {
+        when(client.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), eq(55.75), eq(37.62), eq(5.0), anyInt(), anyInt(), any()))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        mvc.perform(get("/items/search?lat=55.75&lon=37.62&radius=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        assertThrows(NestedServletException.class, () -> mvc.perform(get("/items/search?text=desc&lat=55.75&lon=37.62")
+                .header("X-Sharer-User-Id", 1)
+                .characterEncoding(StandardCharsets.UTF_8)
+                .accept(MediaType.APPLICATION_JSON)), "Поиск рядом без радиуса должен отклоняться");
+    }
+
+    @DisplayName("Метод searchItems с опечатками")
+    @Test
+    void searchItems_compareResult_whenFuzzy() throws Exception {
+        when(client.searchText(anyLong(), anyString(), any(), any(), eq(true), any(), any(), any(), anyInt(), anyInt(), any()))
+                .thenReturn(ResponseEntity.ok(itemDto));
+
+        mvc.perform(get("/items/search?text=dsec&fuzzy=true")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("Метод suggest")
+    @Test
+    void suggest_compareResult_whenPrefixSet() throws Exception {
+        when(client.suggest(anyLong(), anyString(), anyInt()))
+                .thenReturn(ResponseEntity.ok(List.of("name")));
+
+        mvc.perform(get("/items/suggest?prefix=na")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("Метод getComments")
+    @Test
+    void getComments_compareResult_whenCorrect() throws Exception {
+        when(client.getComments(anyLong(), anyLong(), anyInt(), any()))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        mvc.perform(get("/items/1/comments?size=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("Метод getTrending")
+    @Test
+    void getTrending_compareResult_whenCorrect() throws Exception {
+        when(client.getTrending(anyLong(), anyInt()))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        mvc.perform(get("/items/trending?size=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+}
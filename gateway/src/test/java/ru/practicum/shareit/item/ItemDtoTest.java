@@ -23,7 +23,7 @@ class ItemDtoTest {
     @DisplayName("Пустое имя предмета")
     @Test
     void createItemDto_validateItem_whenNameIsBlank() {
-        ItemDto itemDto = new ItemDto(1L, "", "desc", true, 1L);
+        ItemDto itemDto = new ItemDto(1L, "", "desc", true, 1L, null, null);
 
         Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
         assertEquals(1, violations.size(), "Создаётся пустой name");
@@ -32,7 +32,7 @@ class ItemDtoTest {
     @DisplayName("Пустое описание предмета")
     @Test
     void createItemDto_validateItem_whenDescriptionIsBlank() {
-        ItemDto itemDto = new ItemDto(1L, "name", "", true, 1L);
+        ItemDto itemDto = new ItemDto(1L, "name", "", true, 1L, null, null);
 
         Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
         assertEquals(1, violations.size(), "Создаётся пустой description");
@@ -41,7 +41,7 @@ class ItemDtoTest {
     @DisplayName("Пустое имя предмета null")
     @Test
     void createItemDto_validateItem_whenNameIsNull() {
-        ItemDto itemDto = new ItemDto(1L, null, "desc", true, 1L);
+        ItemDto itemDto = new ItemDto(1L, null, "desc", true, 1L, null, null);
 
         Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
         assertEquals(1, violations.size(), "Создаётся name null");
@@ -50,7 +50,7 @@ class ItemDtoTest {
     @DisplayName("Пустое описание предмета null")
     @Test
     void createItemDto_validateItem_whenDescriptionIsNull() {
-        ItemDto itemDto = new ItemDto(1L, "name", null, true, 1L);
+        ItemDto itemDto = new ItemDto(1L, "name", null, true, 1L, null, null);
 
         Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
         assertEquals(1, violations.size(), "Создаётся description null");
@@ -59,7 +59,7 @@ class ItemDtoTest {
     @DisplayName("Пустая доступность предмета")
     @Test
     void createItemDto_validateItem_whenAvailableIsNull() {
-        ItemDto itemDto = new ItemDto(1L, "name", "desc", null, 1L);
+        ItemDto itemDto = new ItemDto(1L, "name", "desc", null, 1L, null, null);
 
         Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
         assertEquals(1, violations.size(), "Создаётся available null");
@@ -80,7 +80,7 @@ class ItemRequestControllerTest {
     @DisplayName("Метод getRequestsByUserId")
     @Test
     void getRequestsByUserId_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getRequestsByUser(anyLong(), anyInt(), anyInt()))
+        when(client.getRequestsByUser(anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(requestDto));
 
         mvc.perform(get("/requests")
@@ -96,7 +96,7 @@ class ItemRequestControllerTest {
     @DisplayName("Метод getAllRequests")
     @Test
     void getAllRequests_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getAllRequests(anyLong(), anyInt(), anyInt()))
+        when(client.getAllRequests(anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.ok(requestDto));
 
         mvc.perform(get("/requests/all")
@@ -15,10 +15,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -95,7 +98,7 @@ class UserControllerTest {
     @DisplayName("Метод getUsers")
     @Test
     void getUsers_compareResult_whenObjectIsCorrect() throws Exception {
-        when(client.getUsers())
+        when(client.getUsers(null, null))
                 .thenReturn(ResponseEntity.ok(List.of(userDto)));
 
         mvc.perform(get("/users")
@@ -106,6 +109,19 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @DisplayName("Метод getUsers с курсором")
+    @Test
+    void getUsers_passCursor_whenPageRequested() throws Exception {
+        when(client.getUsers(5, "abc"))
+                .thenReturn(ResponseEntity.ok(List.of(userDto)));
+
+        mvc.perform(get("/users")
+                        .param("size", "5")
+                        .param("cursor", "abc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
     @DisplayName("Метод deleteUser")
     @Test
     void deleteUser_compareResult_whenObjectIsCorrect() throws Exception {
@@ -119,4 +135,17 @@ class UserControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @DisplayName("Метод deleteUser в фоне")
+    @Test
+    void deleteUserAsync_compareResult_whenAsyncRequested() throws Exception {
+        when(client.deleteUserAsync(1L))
+                .thenReturn(ResponseEntity.accepted().body(Map.of("userId", 1)));
+
+        mvc.perform(delete("/users/1")
+                        .param("async", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+        verify(client, never()).deleteUser(anyLong());
+    }
+}
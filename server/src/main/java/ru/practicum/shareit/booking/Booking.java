@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import lombok.*;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "booking")
+@Where(clause = "deleted = false")
 @Getter
 @Setter
 @ToString
@@ -35,4 +37,24 @@ public class Booking {
     private Item item;
     @Enumerated(EnumType.STRING)
     private Status status;
+    /**
+     * Владелец вещи на момент бронирования, чтобы выборки владельца не соединяли items.
+     */
+    @Column(name = "owner_id")
+    private Long ownerId;
+    /**
+     * Пересчитывается BookingLifecycleScheduler при наступлении start и end.
+     */
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+
+    @PrePersist
+    void prePersist() {
+        if (ownerId == null && item != null && item.getOwner() != null) {
+            ownerId = item.getOwner().getId();
+        }
+        if (phase == null && start != null && end != null) {
+            phase = Phase.of(start, end, LocalDateTime.now());
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.util.List;
+
+/**
+ * Пакетная вставка бронирований. Id из IDENTITY не дают Hibernate объединять insert в пакет,
+ * поэтому saveAll отправляет по оператору на бронирование.
+ */
+public interface BookingBatchRepository {
+    /**
+     * Вставляет бронирования одним JDBC batch и проставляет им id. Выполняется в текущей транзакции.
+     */
+    List<Booking> insertAll(List<Booking> bookings);
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+@RequiredArgsConstructor
+class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private static final String INSERT = "insert into booking (start_date, end_date, booker_id, item_id, owner_id, status, phase) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Booking> insertAll(List<Booking> bookings) {
+        return jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                (PreparedStatement statement) -> {
+                    for (Booking booking : bookings) {
+                        booking.prePersist();
+                        statement.setObject(1, booking.getStart());
+                        statement.setObject(2, booking.getEnd());
+                        statement.setLong(3, booking.getBooker().getId());
+                        statement.setLong(4, booking.getItem().getId());
+                        statement.setLong(5, booking.getOwnerId());
+                        statement.setString(6, booking.getStatus().name());
+                        statement.setString(7, booking.getPhase().name());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Booking booking : bookings) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("База не вернула id вставленного бронирования");
+                            }
+                            booking.setId(keys.getLong("id"));
+                        }
+                    }
+                    return bookings;
+                });
+    }
+}
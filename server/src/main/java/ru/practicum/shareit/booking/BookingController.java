@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.util.List;
 
@@ -18,6 +21,11 @@ public class BookingController {
         return service.create(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBookings(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody List<BookingDto> bookingDtos) {
+        return service.createAll(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                     @PathVariable long bookingId,
@@ -25,25 +33,38 @@ public class BookingController {
         return service.update(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> updateBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @RequestBody BookingDecisionDto decision) {
+        return service.updateAll(userId, decision);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long bookingId) {
         return service.getById(userId, bookingId);
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingByUser(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestParam(defaultValue = "ALL") String state,
-                                                @RequestParam(defaultValue = "0") int from,
-                                                @RequestParam(defaultValue = "10") int size) {
-        return service.getAllByUser(userId, state, from, size);
-
+    public ResponseEntity<List<BookingDto>> getAllBookingByUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                                @RequestParam(defaultValue = "0") int from,
+                                                                @RequestParam(defaultValue = "10") int size,
+                                                                @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = cursor == null
+                ? service.getAllByUser(userId, state, from, size)
+                : service.getAllByUser(userId, state, Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(bookings, size, booking -> Cursor.of(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                 @RequestParam(defaultValue = "ALL") String state,
-                                                 @RequestParam(defaultValue = "0") int from,
-                                                 @RequestParam(defaultValue = "10") int size) {
-        return service.getAllByOwner(ownerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllBookingByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                                 @RequestParam(defaultValue = "ALL") String state,
+                                                                 @RequestParam(defaultValue = "0") int from,
+                                                                 @RequestParam(defaultValue = "10") int size,
+                                                                 @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = cursor == null
+                ? service.getAllByOwner(ownerId, state, from, size)
+                : service.getAllByOwner(ownerId, state, Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(bookings, size, booking -> Cursor.of(booking.getStart(), booking.getId()));
     }
 }
\ No newline at end of file
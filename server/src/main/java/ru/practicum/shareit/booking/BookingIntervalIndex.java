@@ -0,0 +1,275 @@
+package ru.practicum.shareit.booking;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utils.TransactionUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Индекс занятых периодов по вещам: для каждой вещи хранит интервалы [start, end) бронирований
+ * в статусах WAITING и APPROVED. Старые данные могут содержать пересекающиеся и совпадающие интервалы,
+ * поэтому интервалы хранятся с числом повторов, а проверка пересечения идёт по их объединению.
+ * Закончившиеся интервалы отбрасываются при следующем добавлении в вещь.
+ * Индекс свой на каждом узле и служит только подсказкой для поиска свободных вещей: бронирование проверяет
+ * база под блокировкой вещи. Изменения с этого узла попадают в индекс после commit, изменения с других узлов -
+ * при перечитывании из базы раз в refresh-interval. Изменения, пришедшие во время чтения, повторяются
+ * на новом индексе; если такое изменение уже попало в прочитанные данные, расхождение исправит следующее чтение.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    private static final Set<Status> BLOCKING_STATUSES = Set.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Duration refreshInterval;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private Queue<Consumer<Map<Long, Timeline>>> pending;
+    private ScheduledExecutorService executor;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.index.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.bookingRepository = bookingRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        load();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Перечитывает индекс из базы без блокировки читателей и заменяет им текущий.
+     */
+    public synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Map<Long, Timeline> loaded = new ConcurrentHashMap<>();
+            int count = 0;
+            for (BookingPeriod period : bookingRepository.findPeriodsByStatusInAndEndAfter(BLOCKING_STATUSES, LocalDateTime.now())) {
+                loaded.computeIfAbsent(period.getItemId(), id -> new Timeline()).add(period.getStart(), period.getEnd());
+                count++;
+            }
+            lock.writeLock().lock();
+            try {
+                pending.forEach(change -> change.accept(loaded));
+                timelines = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Построен индекс бронирований, интервалов - {}", count);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void add(Booking booking) {
+        long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        change(current -> {
+            Timeline timeline = current.computeIfAbsent(itemId, id -> new Timeline());
+            synchronized (timeline) {
+                timeline.prune(LocalDateTime.now());
+                timeline.add(start, end);
+            }
+        });
+    }
+
+    /**
+     * Добавляет период после commit транзакции, в которой сохраняется бронирование.
+     */
+    public void addOnCommit(Booking booking) {
+        TransactionUtil.afterCommit(() -> add(booking));
+    }
+
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+
+    /**
+     * Снимает период после commit транзакции, в которой меняется статус бронирования.
+     */
+    public void releaseOnCommit(Booking booking) {
+        TransactionUtil.afterCommit(() -> release(booking));
+    }
+
+    /**
+     * Для бронирований, удаляемых без загрузки сущности: интервал снимается, только если он занимал вещь.
+     */
+    public void releasePurged(BookingPurgeView booking) {
+        if (BLOCKING_STATUSES.contains(booking.getStatus())) {
+            release(booking.getItemId(), booking.getStart(), booking.getEnd());
+        }
+    }
+
+    /**
+     * Пересекается ли период с занятыми периодами вещи. Проверяется одна вещь, поэтому поиск спрашивает
+     * только о найденных вещах.
+     */
+    public boolean isBusy(long itemId, LocalDateTime start, LocalDateTime end) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return false;
+        }
+        synchronized (timeline) {
+            return timeline.overlaps(start, end);
+        }
+    }
+
+    private void refresh() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка перечитывания индекса бронирований", e);
+        }
+    }
+
+    /**
+     * Изменения применяются параллельно под блокировкой чтения, замена индекса ждёт их под блокировкой записи.
+     */
+    private void change(Consumer<Map<Long, Timeline>> change) {
+        lock.readLock().lock();
+        try {
+            change.accept(timelines);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void release(long itemId, LocalDateTime start, LocalDateTime end) {
+        change(current -> {
+            Timeline timeline = current.get(itemId);
+            if (timeline == null) {
+                return;
+            }
+            synchronized (timeline) {
+                timeline.remove(start, end);
+            }
+        });
+    }
+
+    /**
+     * Интервалы одной вещи. busy - их объединение из непересекающихся отрезков, отсортированных по началу:
+     * концы в нём отсортированы так же, как начала, поэтому для проверки пересечения достаточно
+     * последнего отрезка, начавшегося раньше конца искомого периода.
+     */
+    private static class Timeline {
+        private final Map<Interval, Integer> intervals = new HashMap<>();
+        private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> previous = busy.lowerEntry(end);
+            return previous != null && previous.getValue().isAfter(start);
+        }
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            intervals.merge(new Interval(start, end), 1, Integer::sum);
+            cover(start, end);
+        }
+
+        void remove(LocalDateTime start, LocalDateTime end) {
+            Interval interval = new Interval(start, end);
+            Integer count = intervals.get(interval);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                intervals.put(interval, count - 1);
+            } else {
+                intervals.remove(interval);
+                rebuild();
+            }
+        }
+
+        void prune(LocalDateTime now) {
+            Map.Entry<LocalDateTime, LocalDateTime> first = busy.firstEntry();
+            if (first != null && !first.getValue().isAfter(now)) {
+                intervals.keySet().removeIf(interval -> !interval.end.isAfter(now));
+                rebuild();
+            }
+        }
+
+        private void rebuild() {
+            busy.clear();
+            intervals.keySet().forEach(interval -> cover(interval.start, interval.end));
+        }
+
+        /**
+         * Добавляет отрезок в объединение, сливая его с пересекающимися и смежными отрезками.
+         */
+        private void cover(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> previous = busy.floorEntry(start);
+            if (previous != null && !previous.getValue().isBefore(start)) {
+                start = previous.getKey();
+                end = max(end, previous.getValue());
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> next = busy.ceilingEntry(start);
+                 next != null && !next.getKey().isAfter(end);
+                 next = busy.ceilingEntry(start)) {
+                end = max(end, next.getValue());
+                busy.remove(next.getKey());
+            }
+            busy.put(start, end);
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Interval {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+}
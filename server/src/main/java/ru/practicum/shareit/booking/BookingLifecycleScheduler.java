@@ -0,0 +1,177 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utils.SchedulerLockRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Переводит бронирования между фазами и отменяет WAITING, не рассмотренные за waiting-grace после start.
+ * Следующий запуск планируется на ближайший start/end, но не позже max-delay.
+ * Работает только на узле, который держит аренду в scheduler_lock. Бронирования, созданные на других узлах,
+ * узел с арендой замечает, раз в poll-interval сверяя ближайший start/end в базе с запланированным.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingLifecycleScheduler {
+    static final String LOCK_NAME = "booking-lifecycle";
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final String node = UUID.randomUUID().toString();
+
+    @Value("${shareit.booking.lifecycle.enabled:true}")
+    private boolean enabled;
+    @Value("${shareit.booking.lifecycle.max-delay:PT1M}")
+    private Duration maxDelay;
+    @Value("${shareit.booking.lifecycle.waiting-grace:PT1H}")
+    private Duration waitingGrace;
+    @Value("${shareit.booking.lifecycle.poll-interval:PT5S}")
+    private Duration pollInterval;
+    @Value("${shareit.booking.lifecycle.batch-size:500}")
+    private int batchSize;
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> next;
+    private LocalDateTime nextRunAt;
+    /**
+     * Время следующего перехода по последнему sweep. Меняется только потоком планировщика.
+     */
+    private LocalDateTime sweepAt;
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, LOCK_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            schedule(LocalDateTime.now());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Запланировать запуск не позже начала бронирования, если оно раньше уже запланированного.
+     */
+    public void onCreated(Booking booking) {
+        if (executor != null) {
+            schedule(booking.getStart());
+        }
+    }
+
+    /**
+     * Выполнить переходы, наступившие к моменту now. Возвращает время следующего перехода.
+     */
+    public LocalDateTime sweep(LocalDateTime now) {
+        int canceled = 0;
+        List<Long> ids = bookingRepository.findWaitingIdsStartedBefore(now.minus(waitingGrace), batchSize);
+        boolean stale = !ids.isEmpty();
+        while (!ids.isEmpty()) {
+            canceled += bookingRepository.cancelWaitingByIdIn(ids);
+            bookingRepository.findAllById(ids).stream()
+                    .filter(booking -> booking.getStatus() == Status.CANCELED)
+                    .forEach(bookingIntervalIndex::release);
+            ids = ids.size() < batchSize ? List.of() : bookingRepository.findWaitingIdsStartedBefore(now.minus(waitingGrace), batchSize);
+        }
+        if (stale) {
+            log.info("Отменено {} нерассмотренных бронирований", canceled);
+        }
+        int past = markInBatches(() -> bookingRepository.findIdsToMarkPast(now, batchSize), bookingRepository::markPastByIdIn);
+        int current = markInBatches(() -> bookingRepository.findIdsToMarkCurrent(now, batchSize),
+                bookingRepository::markCurrentByIdIn);
+        if (past + current > 0) {
+            log.debug("Фаза обновлена: CURRENT {}, PAST {}", current, past);
+        }
+
+        LocalDateTime nextTransition = now.plus(maxDelay);
+        nextTransition = earliest(nextTransition, bookingRepository.findNextStart().orElse(null));
+        nextTransition = earliest(nextTransition, bookingRepository.findNextEnd().orElse(null));
+        return earliest(nextTransition, stale ? now.plus(waitingGrace) : null);
+    }
+
+    /**
+     * Переводит фазу порциями по batchSize, каждая порция - отдельный короткий UPDATE по id.
+     */
+    private int markInBatches(Supplier<List<Long>> findIds, ToIntFunction<List<Long>> mark) {
+        int marked = 0;
+        List<Long> ids = findIds.get();
+        while (!ids.isEmpty()) {
+            marked += mark.applyAsInt(ids);
+            ids = ids.size() < batchSize ? List.of() : findIds.get();
+        }
+        return marked;
+    }
+
+    /**
+     * Запуск на узле с арендой: sweep, если переход уже наступил, иначе только сверка ближайшего start/end
+     * с запланированным. Возвращает время следующего перехода.
+     */
+    LocalDateTime poll(LocalDateTime now) {
+        if (sweepAt != null && sweepAt.isAfter(now)) {
+            sweepAt = earliest(earliest(sweepAt, bookingRepository.findNextStart().orElse(null)),
+                    bookingRepository.findNextEnd().orElse(null));
+        }
+        if (sweepAt == null || !sweepAt.isAfter(now)) {
+            sweepAt = sweep(now);
+        }
+        return sweepAt;
+    }
+
+    private void run() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = now.plus(maxDelay);
+        try {
+            if (schedulerLockRepository.tryAcquire(LOCK_NAME, node, now, now.plus(maxDelay.multipliedBy(2))) > 0) {
+                nextRun = earliest(poll(now), now.plus(pollInterval));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ошибка обработки жизненного цикла бронирований", e);
+        }
+        synchronized (this) {
+            next = null;
+        }
+        schedule(nextRun);
+    }
+
+    private synchronized void schedule(LocalDateTime at) {
+        if (executor == null || executor.isShutdown()) {
+            return;
+        }
+        if (next != null) {
+            if (!at.isBefore(nextRunAt) || !next.cancel(false)) {
+                return;
+            }
+        }
+        long delay = Math.max(0, Duration.between(LocalDateTime.now(), at).toMillis());
+        nextRunAt = at;
+        next = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        return second == null || first.isBefore(second) ? first : second;
+    }
+}
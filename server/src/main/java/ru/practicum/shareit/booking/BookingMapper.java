@@ -23,6 +23,13 @@ public class BookingMapper {
                 .build();
     }
 
+    public BookingItemDto toItemsBookingDto(ItemBookingView booking) {
+        return BookingItemDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
     public Booking toBooking(BookingDto bookingDto) {
         return Booking.builder()
                 .end(bookingDto.getEnd())
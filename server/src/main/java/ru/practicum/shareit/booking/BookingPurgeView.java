@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingPurgeView extends BookingPeriod {
+    Long getId();
+
+    Status getStatus();
+}
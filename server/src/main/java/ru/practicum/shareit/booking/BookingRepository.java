@@ -1,66 +1,200 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.item.Item;
 
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByItemIdAndBookerIdAndEndBeforeAndStatusNotLike(Long itemId, Long bookerId, LocalDateTime time, Status status);
-
-    Optional<Booking> findFirst1ByItemIdAndStartBeforeOrderByStartDesc(Long itemId, LocalDateTime time);
-
-    Optional<Booking> findFirst1ByItemIdAndStartAfterAndStatusNotLikeOrderByStartAsc(Long itemId, LocalDateTime time, Status status);
-
-    List<Booking> findByItemInAndStartBeforeOrderByStartDesc(List<Item> items, LocalDateTime time);
-
-    List<Booking> findByItemInAndStartAfterAndStatusNotLikeOrderByStartAsc(List<Item> items, LocalDateTime time, Status status);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository {
+    @Query("select b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            "where b.status in ?1 and b.end > ?2")
+    List<BookingPeriod> findPeriodsByStatusInAndEndAfter(Set<Status> statuses, LocalDateTime time);
+
+    /**
+     * Блокирует строку вещи до конца транзакции: бронирования одной вещи с разных узлов сохраняются по очереди.
+     */
+    @Query(value = "select i.id from items i where i.id = ?1 for update", nativeQuery = true)
+    Long lockItem(Long itemId);
+
+    /**
+     * Проверка занятости вещи в базе под блокировкой lockItem: индекс в памяти не видит бронирований других узлов.
+     */
+    @Query(value = "select count(*) from booking b where b.item_id = ?1 and b.status in ('WAITING', 'APPROVED') " +
+            "and b.start_date < ?3 and b.end_date > ?2", nativeQuery = true)
+    long countOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Переводит бронирование из WAITING в status, если userId - владелец вещи.
+     * Возвращает 0, если бронирование не найдено, не принадлежит владельцу или уже рассмотрено.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?3 " +
+            "where b.id = ?1 and b.ownerId = ?2 and b.status = ru.practicum.shareit.booking.Status.WAITING")
+    int updateStatusIfWaiting(Long bookingId, Long ownerId, Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Booking> findByIdInAndOwnerIdAndStatus(Collection<Long> ids, Long ownerId, Status status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?2 where b.id in ?1")
+    int updateStatusByIdIn(Collection<Long> ids, Status status);
+
+    /**
+     * Нерассмотренные бронирования, начавшиеся не позже time, не больше limit за раз.
+     */
+    @Query(value = "select b.id from booking b where b.status = 'WAITING' and b.start_date <= ?1 and b.deleted = false " +
+            "order by b.start_date, b.id limit ?2", nativeQuery = true)
+    List<Long> findWaitingIdsStartedBefore(LocalDateTime time, int limit);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ru.practicum.shareit.booking.Status.CANCELED " +
+            "where b.id in ?1 and b.status = ru.practicum.shareit.booking.Status.WAITING")
+    int cancelWaitingByIdIn(Collection<Long> ids);
+
+    /**
+     * Бронирования, закончившиеся не позже time, но ещё не в фазе PAST, не больше limit за раз.
+     */
+    @Query(value = "select b.id from booking b where b.phase in ('FUTURE', 'CURRENT') and b.end_date <= ?1 " +
+            "order by b.end_date, b.id limit ?2", nativeQuery = true)
+    List<Long> findIdsToMarkPast(LocalDateTime time, int limit);
+
+    /**
+     * Бронирования в фазе FUTURE, идущие в момент time, не больше limit за раз.
+     */
+    @Query(value = "select b.id from booking b where b.phase = 'FUTURE' and b.start_date <= ?1 and b.end_date > ?1 " +
+            "order by b.start_date, b.id limit ?2", nativeQuery = true)
+    List<Long> findIdsToMarkCurrent(LocalDateTime time, int limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.Phase.PAST " +
+            "where b.id in ?1 and b.phase <> ru.practicum.shareit.booking.Phase.PAST")
+    int markPastByIdIn(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.Phase.CURRENT " +
+            "where b.id in ?1 and b.phase = ru.practicum.shareit.booking.Phase.FUTURE")
+    int markCurrentByIdIn(Collection<Long> ids);
+
+    @Query("select min(b.start) from Booking b where b.phase = ru.practicum.shareit.booking.Phase.FUTURE")
+    Optional<LocalDateTime> findNextStart();
+
+    @Query("select min(b.end) from Booking b where b.phase = ru.practicum.shareit.booking.Phase.CURRENT")
+    Optional<LocalDateTime> findNextEnd();
 
-    Page<Booking> findByBookerIdAndStatusIn(Long bookerId, Set<Status> states, Pageable pageable);
-
-    Page<Booking> findByBookerId(Long bookerId, Pageable pageable);
+    List<Booking> findByItemIdAndBookerIdAndEndBeforeAndStatusNotLike(Long itemId, Long bookerId, LocalDateTime time, Status status);
 
-    Page<Booking> findByBookerIdAndStatusIs(Long bookerId, Status state, Pageable pageable);
+    /**
+     * Последнее начавшееся и ближайшее неотклонённое будущее бронирование вещи одним запросом.
+     * При одинаковом start возвращаются все такие бронирования, выбор за вызывающим кодом.
+     */
+    @Query("select b from Booking b join fetch b.booker join fetch b.item i join fetch i.owner " +
+            "where b.item.id = ?1 " +
+            "and (b.start = (select max(l.start) from Booking l where l.item.id = ?1 and l.start < ?2) " +
+            "or (b.status <> ?3 and b.start = (select min(n.start) from Booking n " +
+            "where n.item.id = ?1 and n.start > ?2 and n.status <> ?3)))")
+    List<Booking> findLastAndNextByItemId(Long itemId, LocalDateTime time, Status excludedStatus);
+
+    /**
+     * По одному последнему начавшемуся и ближайшему неотклонённому будущему бронированию на каждую вещь.
+     * Окно row_number отсекает остальную историю в базе, запрос работает и в PostgreSQL, и в H2.
+     */
+    @Query(value = "select t.id as \"id\", t.item_id as \"itemId\", t.booker_id as \"bookerId\", t.is_last as \"last\" " +
+            "from (select b.id, b.item_id, b.booker_id, true as is_last, " +
+            "row_number() over (partition by b.item_id order by b.start_date desc, b.id desc) as rn " +
+            "from booking b where b.item_id in (?1) and b.start_date < ?2 " +
+            "and b.deleted = false " +
+            "union all " +
+            "select b.id, b.item_id, b.booker_id, false as is_last, " +
+            "row_number() over (partition by b.item_id order by b.start_date asc, b.id asc) as rn " +
+            "from booking b where b.item_id in (?1) and b.start_date > ?2 and b.status <> 'REJECTED' " +
+            "and b.deleted = false) t " +
+            "where t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextByItemIdIn(Collection<Long> itemIds, LocalDateTime time);
+
+    Slice<Booking> findByBookerIdAndStatusIn(Long bookerId, Set<Status> states, Pageable pageable);
+
+    Slice<Booking> findByBookerId(Long bookerId, Pageable pageable);
+
+    Slice<Booking> findByBookerIdAndStatusIs(Long bookerId, Status state, Pageable pageable);
+
+    Slice<Booking> findByBookerIdAndPhase(Long bookerId, Phase phase, Pageable pageable);
 
-    Page<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query("select b from Booking b " +
+            "where b.ownerId = ?1 and b.status in (?2) ")
+    Slice<Booking> findByOwnerIdAndStatusIn(Long ownerId, Set<Status> states, Pageable pageable);
 
-    Page<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime start, Pageable pageable);
+    @Query("select b from Booking b " +
+            "where b.ownerId = ?1 and b.status = ?2 ")
+    Slice<Booking> findByOwnerIdAndStatus(Long ownerId, Status state, Pageable pageable);
 
     @Query("select b from Booking b " +
-            "left join Item i on i.id = b.item " +
-            "left join User u on i.owner = u.id " +
-            "where u.id = ?1 and b.status in (?2) ")
-    Page<Booking> findByOwnerIdAndStatusIn(Long ownerId, Set<Status> states, Pageable pageable);
+            "where b.ownerId = ?1 ")
+    Slice<Booking> findByOwnerId(Long ownerId, Pageable pageable);
+
+    Slice<Booking> findByOwnerIdAndPhase(Long ownerId, Phase phase, Pageable pageable);
 
     @Query("select b from Booking b " +
-            "left join Item i on i.id = b.item " +
-            "left join User u on i.owner = u.id " +
-            "where u.id = ?1 and b.status = ?2 ")
-    Page<Booking> findByOwnerIdAndStatus(Long ownerId, Status state, Pageable pageable);
+            "where b.booker.id = ?1 and b.status in (?2) " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByBookerIdAndStatusInBeforeCursor(Long bookerId, Set<Status> states,
+                                                         LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
     @Query("select b from Booking b " +
-            "left join Item i on i.id = b.item " +
-            "left join User u on i.owner = u.id " +
-            "where u.id = ?1 ")
-    Page<Booking> findByOwnerId(Long ownerId, Pageable pageable);
+            "where b.booker.id = ?1 and b.phase = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByBookerIdAndPhaseBeforeCursor(Long bookerId, Phase phase,
+                                                      LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
     @Query("select b from Booking b " +
-            "left join Item i on i.id = b.item " +
-            "left join User u on i.owner = u.id " +
-            "where u.id = ?1 and b.start < ?2 and b.end > ?2 ")
-    Page<Booking> findByOwnerIdCurrent(Long ownerId, LocalDateTime time, Pageable pageable);
+            "where b.ownerId = ?1 and b.status in (?2) " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByOwnerIdAndStatusInBeforeCursor(Long ownerId, Set<Status> states,
+                                                        LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
     @Query("select b from Booking b " +
-            "left join Item i on i.id = b.item " +
-            "left join User u on i.owner = u.id " +
-            "where u.id = ?1 and b.end < ?2 ")
-    Page<Booking> findByOwnerIdPast(Long ownerId, LocalDateTime start, Pageable pageable);
-}
\ No newline at end of file
+            "where b.ownerId = ?1 and b.phase = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByOwnerIdAndPhaseBeforeCursor(Long ownerId, Phase phase,
+                                                     LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    /**
+     * Бронирования удалённого пользователя как арендатора и как владельца вещей, не больше limit за раз.
+     */
+    @Query(value = "select id as \"id\", item_id as \"itemId\", start_date as \"start\", end_date as \"end\", " +
+            "status as \"status\" from booking where booker_id = ?1 or owner_id = ?1 limit ?2", nativeQuery = true)
+    List<BookingPurgeView> findToPurge(Long userId, int limit);
+
+    @Query(value = "select count(*) from booking where booker_id = ?1 or owner_id = ?1", nativeQuery = true)
+    long countToPurge(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update booking set deleted = true where booker_id = ?1 or owner_id = ?1",
+            countQuery = "select 0", nativeQuery = true)
+    int markDeletedByUserId(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from booking b where b.id in (?1)", countQuery = "select 0", nativeQuery = true)
+    int purgeByIdIn(Collection<Long> ids);
+}
@@ -1,15 +1,25 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.utils.Cursor;
+
 import java.util.List;
 
 public interface BookingService {
     BookingDto create(long userId, BookingDto booking);
 
+    List<BookingDto> createAll(long userId, List<BookingDto> bookings);
+
     BookingDto update(long userId, long bookingId, Boolean approved);
 
+    List<BookingDecisionResultDto> updateAll(long userId, BookingDecisionDto decision);
+
     BookingDto getById(long userId, long bookingId);
 
     List<BookingDto> getAllByUser(long userId, String state, int from, int size);
 
     List<BookingDto> getAllByOwner(long ownerId, String state, int from, int size);
+
+    List<BookingDto> getAllByUser(long userId, String state, Cursor cursor, int size);
+
+    List<BookingDto> getAllByOwner(long ownerId, String state, Cursor cursor, int size);
 }
\ No newline at end of file
@@ -1,22 +1,34 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
 import ru.practicum.shareit.exception.UnknownStateException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCardCache;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.Cursor;
 import ru.practicum.shareit.utils.PaginationUtil;
+import ru.practicum.shareit.utils.TransactionUtil;
 
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,49 +38,131 @@ public class BookingServiceImpl implements BookingService {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingLifecycleScheduler bookingLifecycleScheduler;
+    private final ItemCardCache itemCardCache;
 
     @Override
+    @Transactional
     public BookingDto create(long userId, BookingDto bookingDto) {
         Booking booking = bookingMapper.toBooking(bookingDto);
-        userService.getById(userId);
+        User booker = userService.getById(userId);
         booking.setItem(itemService.getItem(bookingDto.getItemId()));
-        if (booking.getItem().isAvailable()) {
-            if (booking.getItem().getOwner().getId() != userId) {
-                validateTime(booking.getStart(), booking.getEnd());
-                booking.setBooker(userService.getById(userId));
-                booking.setStatus(Status.WAITING);
-                return bookingMapper.toBookingDto(bookingRepository.save(booking));
-            } else {
-                throw new IncorrectParameterException("Вы являетесь владельцем вещи - бронирование невозможно.");
+        prepareBooking(booking, booker, userId);
+        reserve(booking);
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.addOnCommit(saved);
+        bookingLifecycleScheduler.onCreated(saved);
+        long itemId = saved.getItem().getId();
+        TransactionUtil.afterCommit(() -> itemCardCache.invalidate(itemId));
+        return bookingMapper.toBookingDto(saved);
+    }
+
+    /**
+     * Все бронирования пакета создаются в одной транзакции: вещи блокируются в порядке id, чтобы встречные пакеты
+     * не взаимоблокировались, а периоды попадают в индекс только после commit.
+     */
+    @Override
+    @Transactional
+    public List<BookingDto> createAll(long userId, List<BookingDto> bookingDtos) {
+        if (bookingDtos == null || bookingDtos.isEmpty()) {
+            throw new ValidationException("Не указаны бронирования.");
+        }
+        if (bookingDtos.stream().anyMatch(bookingDto -> bookingDto.getItemId() == null)) {
+            throw new ValidationException("Не указана вещь.");
+        }
+        User booker = userService.getById(userId);
+        Map<Long, Item> items = itemService.getItems(bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toSet()));
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new ParameterNotFoundException(String.format("Вещи с id %d - не существует.", bookingDto.getItemId()));
             }
-        } else {
-            throw new ValidationException("Эта вещь уже забронирована.");
+            Booking booking = bookingMapper.toBooking(bookingDto);
+            booking.setItem(item);
+            prepareBooking(booking, booker, userId);
+            bookings.add(booking);
         }
+
+        List<Booking> sorted = bookings.stream()
+                .sorted(Comparator.comparing((Booking booking) -> booking.getItem().getId()).thenComparing(Booking::getStart))
+                .collect(Collectors.toList());
+        validateNoOverlap(sorted);
+        sorted.forEach(this::reserve);
+        List<Booking> saved = bookingRepository.insertAll(bookings);
+        saved.forEach(bookingIntervalIndex::addOnCommit);
+        saved.forEach(bookingLifecycleScheduler::onCreated);
+        TransactionUtil.afterCommit(() -> items.keySet().forEach(itemCardCache::invalidate));
+        return saved.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public BookingDto update(long userId, long bookingId, Boolean approved) {
         if (Optional.ofNullable(approved).isPresent()) {
-            Booking booking = getBooking(bookingId);
-            if (booking.getItem().getOwner().getId() == userId) {
-                if (booking.getStatus().equals(Status.APPROVED) || booking.getStatus().equals(Status.REJECTED)) {
-                    throw new ValidationException("Вы уже подвертили или отказали бронирование. Повторное действие не возможно.");
-                }
-                if (approved) {
-                    booking.setStatus(Status.APPROVED);
-                } else {
-                    booking.setStatus(Status.REJECTED);
+            Status status = approved ? Status.APPROVED : Status.REJECTED;
+            if (bookingRepository.updateStatusIfWaiting(bookingId, userId, status) == 0) {
+                Booking booking = getBooking(bookingId);
+                if (booking.getItem().getOwner().getId() != userId) {
+                    throw new ParameterNotFoundException("Вы не являетесь владельцем вещи.");
                 }
-                bookingRepository.save(booking);
-                return bookingMapper.toBookingDto(booking);
-            } else {
-                throw new ParameterNotFoundException("Вы не являетесь владельцем вещи.");
+                throw new ConflictException("Вы уже подвертили или отказали бронирование. Повторное действие не возможно.");
+            }
+            Booking booking = getBooking(bookingId);
+            if (status == Status.REJECTED) {
+                bookingIntervalIndex.release(booking);
             }
+            itemCardCache.invalidate(booking.getItem().getId());
+            return bookingMapper.toBookingDto(booking);
         } else {
             throw new UnknownStateException("Обязательно должен быть указан approved");
         }
     }
 
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> updateAll(long userId, BookingDecisionDto decision) {
+        if (decision.getApproved() == null) {
+            throw new UnknownStateException("Обязательно должен быть указан approved");
+        }
+        if (decision.getBookingIds() == null || decision.getBookingIds().isEmpty()) {
+            throw new ValidationException("Не указаны бронирования.");
+        }
+        Status status = decision.getApproved() ? Status.APPROVED : Status.REJECTED;
+        Set<Long> ids = new LinkedHashSet<>(decision.getBookingIds());
+        Map<Long, Booking> waiting = bookingRepository.findByIdInAndOwnerIdAndStatus(ids, userId, Status.WAITING)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        if (!waiting.isEmpty()) {
+            bookingRepository.updateStatusByIdIn(waiting.keySet(), status);
+        }
+        Map<Long, Booking> others = bookingRepository.findAllById(ids.stream()
+                        .filter(id -> !waiting.containsKey(id))
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        for (Long id : ids) {
+            Booking booking = waiting.get(id);
+            if (booking != null) {
+                if (status == Status.REJECTED) {
+                    bookingIntervalIndex.releaseOnCommit(booking);
+                }
+                long itemId = booking.getItem().getId();
+                TransactionUtil.afterCommit(() -> itemCardCache.invalidate(itemId));
+                results.add(BookingDecisionResultDto.builder().bookingId(id).status(status).build());
+            } else {
+                results.add(rejectDecision(userId, id, others.get(id)));
+            }
+        }
+        return results;
+    }
+
     @Override
     public BookingDto getById(long userId, long bookingId) {
         Booking booking = getBooking(bookingId);
@@ -81,10 +175,10 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllByUser(long bookerId, String stateStr, int from, int size) {
-        userService.getById(bookerId);
-        Page<Booking> bookings;
+        userService.checkExists(bookerId);
+        Slice<Booking> bookings;
         State state = State.fromString(stateStr);
-        PageRequest pageable = PaginationUtil.getPageRequestDesc(from, size, "start");
+        PageRequest pageable = PaginationUtil.getPageRequestDesc(from, size, "start", "id");
 
         switch (state) {
             case FUTURE:
@@ -97,10 +191,10 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findByBookerIdAndStatusIs(bookerId, Status.WAITING, pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, LocalDateTime.now(), LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findByBookerIdAndPhase(bookerId, Phase.CURRENT, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findByBookerIdAndPhase(bookerId, Phase.PAST, pageable);
                 break;
             case ALL:
             default:
@@ -115,10 +209,10 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllByOwner(long ownerId, String stateStr, int from, int size) {
-        userService.getById(ownerId);
-        Page<Booking> bookings;
+        userService.checkExists(ownerId);
+        Slice<Booking> bookings;
         State state = State.fromString(stateStr);
-        PageRequest pageRequest = PaginationUtil.getPageRequestDesc(from, size, "start");
+        PageRequest pageRequest = PaginationUtil.getPageRequestDesc(from, size, "start", "id");
 
         switch (state) {
             case FUTURE:
@@ -131,10 +225,10 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findByOwnerIdAndStatus(ownerId, Status.WAITING, pageRequest);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByOwnerIdCurrent(ownerId, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndPhase(ownerId, Phase.CURRENT, pageRequest);
                 break;
             case PAST:
-                bookings = bookingRepository.findByOwnerIdPast(ownerId, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndPhase(ownerId, Phase.PAST, pageRequest);
                 break;
             case ALL:
             default:
@@ -147,25 +241,146 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<BookingDto> getAllByUser(long bookerId, String stateStr, Cursor cursor, int size) {
+        userService.checkExists(bookerId);
+        List<Booking> bookings;
+        State state = State.fromString(stateStr);
+        LocalDateTime cursorStart = getCursorStart(cursor);
+        PageRequest limit = PaginationUtil.getLimit(size);
 
-    private Page<Booking> createBookingPage(long ownerId, State state, int from, int size) {
-        int pageNumber = (from + size - 1) / size;
-        PageRequest pageRequest = PageRequest.of(pageNumber, size, Sort.by("start").descending());
+        switch (state) {
+            case FUTURE:
+                bookings = bookingRepository.findByBookerIdAndStatusInBeforeCursor(bookerId, Set.of(Status.WAITING, Status.APPROVED),
+                        cursorStart, cursor.getId(), limit);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findByBookerIdAndStatusInBeforeCursor(bookerId, Set.of(Status.REJECTED),
+                        cursorStart, cursor.getId(), limit);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findByBookerIdAndStatusInBeforeCursor(bookerId, Set.of(Status.WAITING),
+                        cursorStart, cursor.getId(), limit);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findByBookerIdAndPhaseBeforeCursor(bookerId, Phase.CURRENT,
+                        cursorStart, cursor.getId(), limit);
+                break;
+            case PAST:
+                bookings = bookingRepository.findByBookerIdAndPhaseBeforeCursor(bookerId, Phase.PAST,
+                        cursorStart, cursor.getId(), limit);
+                break;
+            case ALL:
+            default:
+                bookings = bookingRepository.findByBookerIdAndStatusInBeforeCursor(bookerId, EnumSet.allOf(Status.class),
+                        cursorStart, cursor.getId(), limit);
+                break;
+        }
+
+        return bookings.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingDto> getAllByOwner(long ownerId, String stateStr, Cursor cursor, int size) {
+        userService.checkExists(ownerId);
+        List<Booking> bookings;
+        State state = State.fromString(stateStr);
+        LocalDateTime cursorStart = getCursorStart(cursor);
+        PageRequest limit = PaginationUtil.getLimit(size);
 
         switch (state) {
             case FUTURE:
-                return bookingRepository.findByOwnerIdAndStatusIn(ownerId, Set.of(Status.WAITING, Status.APPROVED), pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndStatusInBeforeCursor(ownerId, Set.of(Status.WAITING, Status.APPROVED),
+                        cursorStart, cursor.getId(), limit);
+                break;
             case REJECTED:
-                return bookingRepository.findByOwnerIdAndStatus(ownerId, Status.REJECTED, pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndStatusInBeforeCursor(ownerId, Set.of(Status.REJECTED),
+                        cursorStart, cursor.getId(), limit);
+                break;
             case WAITING:
-                return bookingRepository.findByOwnerIdAndStatus(ownerId, Status.WAITING, pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndStatusInBeforeCursor(ownerId, Set.of(Status.WAITING),
+                        cursorStart, cursor.getId(), limit);
+                break;
             case CURRENT:
-                return bookingRepository.findByOwnerIdCurrent(ownerId, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndPhaseBeforeCursor(ownerId, Phase.CURRENT,
+                        cursorStart, cursor.getId(), limit);
+                break;
             case PAST:
-                return bookingRepository.findByOwnerIdPast(ownerId, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndPhaseBeforeCursor(ownerId, Phase.PAST,
+                        cursorStart, cursor.getId(), limit);
+                break;
             case ALL:
             default:
-                return bookingRepository.findByOwnerId(ownerId, pageRequest);
+                bookings = bookingRepository.findByOwnerIdAndStatusInBeforeCursor(ownerId, EnumSet.allOf(Status.class),
+                        cursorStart, cursor.getId(), limit);
+                break;
+        }
+
+        return bookings.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private LocalDateTime getCursorStart(Cursor cursor) {
+        if (cursor.getTime() == null) {
+            throw new ValidationException("cursor не относится к списку бронирований.");
+        }
+        return cursor.getTime();
+    }
+
+    private BookingDecisionResultDto rejectDecision(long userId, long id, Booking booking) {
+        BookingDecisionResultDto result = BookingDecisionResultDto.builder().bookingId(id).build();
+        if (booking == null) {
+            result.setError(String.format("Бронирования с id %d - не существует.", id));
+        } else if (booking.getItem().getOwner().getId() != userId) {
+            result.setError("Вы не являетесь владельцем вещи.");
+        } else {
+            result.setStatus(booking.getStatus());
+            result.setError("Вы уже подвертили или отказали бронирование. Повторное действие не возможно.");
+        }
+        return result;
+    }
+
+    private void prepareBooking(Booking booking, User booker, long userId) {
+        if (!booking.getItem().isAvailable()) {
+            throw new ValidationException("Эта вещь уже забронирована.");
+        }
+        if (booking.getItem().getOwner().getId() == userId) {
+            throw new IncorrectParameterException("Вы являетесь владельцем вещи - бронирование невозможно.");
+        }
+        validateTime(booking.getStart(), booking.getEnd());
+        booking.setBooker(booker);
+        booking.setStatus(Status.WAITING);
+    }
+
+    /**
+     * Проверяет период в базе под блокировкой вещи до конца транзакции. Индекс узла здесь не используется:
+     * он может отставать от базы и отклонил бы свободный период.
+     */
+    private void reserve(Booking booking) {
+        long itemId = booking.getItem().getId();
+        bookingRepository.lockItem(itemId);
+        if (bookingRepository.countOverlapping(itemId, booking.getStart(), booking.getEnd()) > 0) {
+            throw new ValidationException("Вещь уже забронирована на этот период.");
+        }
+    }
+
+    /**
+     * Пересечения внутри пакета: база их не видит, пока пакет не вставлен. Бронирования отсортированы по вещи и началу.
+     */
+    private void validateNoOverlap(List<Booking> sorted) {
+        Booking previous = null;
+        for (Booking booking : sorted) {
+            if (previous != null && previous.getItem().getId().equals(booking.getItem().getId())
+                    && booking.getStart().isBefore(previous.getEnd())) {
+                throw new ValidationException("Вещь уже забронирована на этот период.");
+            }
+            if (previous == null || !previous.getItem().getId().equals(booking.getItem().getId())
+                    || booking.getEnd().isAfter(previous.getEnd())) {
+                previous = booking;
+            }
         }
     }
 
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Последнее или ближайшее бронирование вещи без загрузки сущностей.
+ */
+public interface ItemBookingView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    /**
+     * {@code true} для последнего начавшегося бронирования, {@code false} для ближайшего будущего.
+     */
+    Boolean getLast();
+}
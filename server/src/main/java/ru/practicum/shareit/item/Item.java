@@ -4,16 +4,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * TODO Sprint add-controllers.
  */
 @Entity
 @Table(name = "items")
+@Where(clause = "deleted = false")
 @Data
 @Builder
 @AllArgsConstructor
@@ -32,4 +36,17 @@ public class Item {
     private boolean available;
     @ManyToOne(fetch = FetchType.LAZY)
     private ItemRequest request;
+    private Double latitude;
+    private Double longitude;
+    /**
+     * Время последнего изменения с точностью хранения в базе: по нему ItemIndexLoader дочитывает изменения с других узлов.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
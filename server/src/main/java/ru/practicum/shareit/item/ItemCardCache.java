@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранных карточек вещей по id вещи и роли смотрящего: владелец видит бронирования, остальные нет.
+ * Карточка владельца живёт до начала ближайшего бронирования, после него последнее и следующее
+ * бронирования меняются. Бронирования, комментарии и изменения вещи сбрасывают карточки явно,
+ * ttl страхует от изменений, о которых кэш не узнаёт. Метрики публикуются с тегом cache=itemCard.
+ */
+@Component
+public class ItemCardCache {
+    private final Cache<Key, Card> cache;
+    private final Duration ttl;
+    private final AtomicLong version = new AtomicLong();
+
+    public ItemCardCache(@Value("${shareit.item.card-cache.max-size:10000}") long maxSize,
+                         @Value("${shareit.item.card-cache.ttl:PT10M}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CardExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemCard");
+    }
+
+    /**
+     * Карточка из кэша или собранная loader. На попадании в базу не обращается.
+     */
+    public ItemDto get(long itemId, long userId, Supplier<Card> loader) {
+        Card card = cache.getIfPresent(new Key(itemId, true));
+        if (card != null && card.isOwner(userId)) {
+            return card.getItemDto();
+        }
+        card = cache.getIfPresent(new Key(itemId, false));
+        if (card != null && !card.isOwner(userId)) {
+            return card.getItemDto();
+        }
+        long loadedAt = version.get();
+        card = loader.get();
+        Key key = new Key(itemId, card.isOwner(userId));
+        cache.put(key, card);
+        if (version.get() != loadedAt) {
+            cache.invalidate(key);
+        }
+        return card.getItemDto();
+    }
+
+    /**
+     * Сбрасывает обе карточки вещи. Карточка, собираемая одновременно с изменением, в кэше не остаётся.
+     */
+    public void invalidate(long itemId) {
+        version.incrementAndGet();
+        cache.invalidate(new Key(itemId, true));
+        cache.invalidate(new Key(itemId, false));
+    }
+
+    /**
+     * Для изменений, затрагивающих неизвестный набор вещей: имя владельца или автора комментария.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Собранная карточка и момент, после которого она устаревает сама по себе (null - не устаревает).
+     */
+    @RequiredArgsConstructor
+    public static class Card {
+        private final ItemDto itemDto;
+        private final LocalDateTime validUntil;
+
+        ItemDto getItemDto() {
+            return itemDto;
+        }
+
+        boolean isOwner(long userId) {
+            return itemDto.getOwner() != null && itemDto.getOwner().getId() == userId;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final long itemId;
+        private final boolean owner;
+    }
+
+    private class CardExpiry implements Expiry<Key, Card> {
+        @Override
+        public long expireAfterCreate(Key key, Card card, long currentTime) {
+            if (card.validUntil == null) {
+                return ttl.toNanos();
+            }
+            Duration left = Duration.between(LocalDateTime.now(), card.validUntil);
+            return left.isNegative() ? 0 : Math.min(left.toNanos(), ttl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Card card, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, card, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Card card, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля для индексов вместе с флагом удаления и временем изменения: по ним ItemIndexLoader дочитывает изменения.
+ */
+public interface ItemChangeView extends ItemIndexView {
+    boolean isDeleted();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -1,10 +1,19 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.geo.GeoPoint;
+import ru.practicum.shareit.item.trending.TrendingDto;
+import ru.practicum.shareit.item.trending.TrendingTracker;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -16,6 +25,7 @@ import java.util.List;
 @Validated
 public class ItemController {
     private final ItemService itemService;
+    private final TrendingTracker trendingTracker;
 
     @PostMapping
     public ItemDto add(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto) {
@@ -29,6 +39,16 @@ public class ItemController {
         return itemService.addComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @PathVariable long itemId,
+                                                        @RequestParam(defaultValue = "10") int size,
+                                                        @RequestParam(required = false) String cursor) {
+        List<CommentDto> comments = itemService.getComments(userId, itemId,
+                cursor == null ? null : Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(comments, size, comment -> Cursor.of(comment.getCreated(), comment.getId()));
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") long userId,
                           @PathVariable long itemId,
@@ -38,21 +58,63 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getItem(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId) {
-        return itemService.getById(itemId, userId);
+        ItemDto itemDto = itemService.getById(itemId, userId);
+        trendingTracker.recordView(itemId);
+        return itemDto;
     }
 
     @GetMapping
-    public List<ItemDto> getItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                  @RequestParam(defaultValue = "0") int from,
-                                  @RequestParam(defaultValue = "10") int size) {
-        return itemService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemDto>> getItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestParam(defaultValue = "0") int from,
+                                                  @RequestParam(defaultValue = "10") int size,
+                                                  @RequestParam(required = false) String cursor) {
+        List<ItemDto> items = cursor == null
+                ? itemService.getAll(userId, from, size)
+                : itemService.getAll(userId, Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(items, size, item -> Cursor.of(item.getId()));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggest(prefix, size);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                     @RequestParam String text,
-                                     @RequestParam(defaultValue = "0") int from,
-                                     @RequestParam(defaultValue = "10") int size) {
-        return itemService.searchText(userId, text, from, size);
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                     @RequestParam(defaultValue = "") String text,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                     @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                     @RequestParam(required = false) Double lat,
+                                                     @RequestParam(required = false) Double lon,
+                                                     @RequestParam(required = false) Double radius,
+                                                     @RequestParam(defaultValue = "0") int from,
+                                                     @RequestParam(defaultValue = "10") int size,
+                                                     @RequestParam(required = false) String cursor) {
+        if (lat != null || lon != null || radius != null) {
+            if (lat == null || lon == null || radius == null) {
+                throw new ValidationException("Для поиска рядом нужно указать lat, lon и radius.");
+            }
+            if (cursor != null) {
+                throw new ValidationException("Поиск рядом листается параметром from.");
+            }
+            List<ItemDto> items = itemService.searchNearby(userId, text, new GeoPoint(lat, lon), radius,
+                    start, end, fuzzy, from, size);
+            trendingTracker.recordSearch(text);
+            return ResponseEntity.ok(items);
+        }
+        List<ItemDto> items = cursor == null
+                ? itemService.searchText(userId, text, start, end, fuzzy, from, size)
+                : itemService.searchText(userId, text, start, end, fuzzy, Cursor.decode(cursor), size);
+        trendingTracker.recordSearch(text);
+        return PaginationUtil.withNextCursor(items, size, item -> Cursor.of(item.getScore(), item.getId()));
+    }
+
+    @GetMapping("/trending")
+    public TrendingDto getTrending(@RequestHeader("X-Sharer-User-Id") long userId,
+                                   @RequestParam(defaultValue = "10") int size) {
+        return itemService.getTrending(size);
     }
 }
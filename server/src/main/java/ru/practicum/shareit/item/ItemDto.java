@@ -26,6 +26,20 @@ public class ItemDto {
     private Long request;
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
+    /**
+     * Новейшие комментарии, остальные доступны через /items/{itemId}/comments.
+     */
     private List<CommentDto> comments;
+    private Long commentsCount;
     private Long requestId;
+    private Double latitude;
+    private Double longitude;
+    /**
+     * Расстояние до точки поиска в км, только в ответе на поиск рядом.
+     */
+    private Double distance;
+    /**
+     * Релевантность в ответе на текстовый поиск, по ней строится cursor следующей страницы.
+     */
+    private Double score;
 }
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.geo.ItemGeoIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.utils.PaginationUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заполняет поисковый индекс, дерево подсказок и сетку координат за один проход по вещам:
+ * порциями по id, только нужные индексам поля, без загрузки владельцев.
+ * Затем раз в refresh-interval дочитывает вещи, изменённые после последнего прохода, в том числе на других узлах:
+ * удалённые и недоступные убираются из индексов, а страницы поиска и карточки с ними сбрасываются.
+ * Чтение начинается на overlap раньше последнего увиденного updated_at: так не теряются транзакции,
+ * зафиксированные позже своего updated_at, и расхождение часов узлов. Повторно прочитанная вещь применяется,
+ * только если её updated_at изменился.
+ */
+@Slf4j
+@Component
+public class ItemIndexLoader {
+    static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemGeoIndex itemGeoIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemCardCache itemCardCache;
+    private final Duration refreshInterval;
+    private final Duration overlap;
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+    private LocalDateTime watermark;
+    private ScheduledExecutorService executor;
+
+    public ItemIndexLoader(ItemRepository itemRepository, ItemSearchIndex itemSearchIndex,
+                           ItemSuggestIndex itemSuggestIndex, ItemGeoIndex itemGeoIndex,
+                           ItemSearchCache itemSearchCache, ItemCardCache itemCardCache,
+                           @Value("${shareit.item.index.refresh-interval:PT30S}") Duration refreshInterval,
+                           @Value("${shareit.item.index.refresh-overlap:PT1M}") Duration overlap) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.itemGeoIndex = itemGeoIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.itemCardCache = itemCardCache;
+        this.refreshInterval = refreshInterval;
+        this.overlap = overlap;
+    }
+
+    @PostConstruct
+    void start() {
+        load();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized void load() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long lastId = 0;
+        int count = 0;
+        List<ItemIndexView> batch;
+        do {
+            batch = itemRepository.findIndexViewsAfter(lastId, PaginationUtil.getLimit(LOAD_BATCH_SIZE));
+            for (ItemIndexView view : batch) {
+                index(toItem(view));
+                lastId = view.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        watermark = startedAt;
+        log.info("Построены индексы вещей, вещей - {}, документов поиска - {}, в сетке координат - {}",
+                count, itemSearchIndex.size(), itemGeoIndex.size());
+    }
+
+    /**
+     * Применяет вещи, изменённые после последнего прохода, и возвращает их число.
+     */
+    public synchronized int refresh() {
+        LocalDateTime from = watermark.minus(overlap);
+        applied.values().removeIf(updatedAt -> updatedAt.isBefore(from));
+        LocalDateTime lastUpdatedAt = from;
+        long lastId = 0;
+        int count = 0;
+        List<ItemChangeView> batch;
+        do {
+            batch = itemRepository.findChangedAfter(lastUpdatedAt, lastId, LOAD_BATCH_SIZE);
+            for (ItemChangeView view : batch) {
+                if (!view.getUpdatedAt().equals(applied.put(view.getId(), view.getUpdatedAt()))) {
+                    apply(view);
+                    count++;
+                }
+                lastUpdatedAt = view.getUpdatedAt();
+                lastId = view.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        if (lastUpdatedAt.isAfter(watermark)) {
+            watermark = lastUpdatedAt;
+        }
+        if (count > 0) {
+            log.debug("Обновлены индексы вещей, изменённых вещей - {}", count);
+        }
+        return count;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка обновления индексов вещей", e);
+        }
+    }
+
+    private void apply(ItemChangeView view) {
+        Item item = toItem(view);
+        if (view.isDeleted()) {
+            item.setAvailable(false);
+        }
+        Set<String> previousTerms = itemSearchIndex.terms(item.getId());
+        index(item);
+        itemSearchCache.invalidate(previousTerms, item);
+        itemCardCache.invalidate(item.getId());
+    }
+
+    private void index(Item item) {
+        itemSearchIndex.index(item);
+        itemSuggestIndex.index(item);
+        itemGeoIndex.index(item);
+    }
+
+    private static Item toItem(ItemIndexView view) {
+        return Item.builder()
+                .id(view.getId())
+                .name(view.getName())
+                .description(view.getDescription())
+                .available(view.isAvailable())
+                .latitude(view.getLatitude())
+                .longitude(view.getLongitude())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Поля вещи, которые нужны индексам поиска, подсказок и координат, без владельца и запроса.
+ */
+public interface ItemIndexView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    boolean isAvailable();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
@@ -14,7 +14,10 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.isAvailable())
                 .comments(new ArrayList<>())
+                .commentsCount(0L)
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
                 .build();
     }
 
@@ -23,6 +26,8 @@ public class ItemMapper {
                 .name(itemDto.getName())
                 .description(itemDto.getDescription())
                 .available(itemDto.getAvailable())
+                .latitude(itemDto.getLatitude())
+                .longitude(itemDto.getLongitude())
                 .build();
     }
 }
@@ -3,19 +3,79 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
 
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     Page<Item> findByOwnerId(Long userId, Pageable pageable);
 
+    List<Item> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long userId, Long cursorId, Pageable pageable);
+
+    /**
+     * Вещи, ответившие на запросы, вместе с владельцами одним запросом.
+     */
+    @Query("select i from Item i join fetch i.owner where i.request in ?1 order by i.id")
     List<Item> findByRequestInOrderByIdAsc(List<ItemRequest> requests);
 
+    /**
+     * Ответившие на запросы вещи, изменённые не раньше from, вместе с владельцами.
+     */
+    @Query("select i from Item i join fetch i.owner where i.request is not null and i.updatedAt >= ?1 order by i.id")
+    List<Item> findAnswersUpdatedSince(LocalDateTime from);
+
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "i.latitude as latitude, i.longitude as longitude from Item i where i.id > ?1 order by i.id")
+    List<ItemIndexView> findIndexViewsAfter(long afterId, Pageable pageable);
+
+    /**
+     * Вещи, изменённые после (updatedAt, id), включая удалённые, в порядке изменения, не больше limit за раз.
+     */
+    @Query(value = "select id as \"id\", name as \"name\", description as \"description\", is_available as \"available\", " +
+            "latitude as \"latitude\", longitude as \"longitude\", deleted as \"deleted\", updated_at as \"updatedAt\" " +
+            "from items where updated_at > ?1 or (updated_at = ?1 and id > ?2) order by updated_at, id limit ?3",
+            nativeQuery = true)
+    List<ItemChangeView> findChangedAfter(LocalDateTime updatedAt, long afterId, int limit);
+
     @Query("select i from Item i" +
             " where (upper(i.name) like upper(concat('%', ?1, '%')) " +
             " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
             " and (i.available = true)")
     Page<Item> search(String text, Pageable pageable);
+
+    /**
+     * Id вещей пользователя в обход фильтра удалённых, не больше limit за раз.
+     */
+    @Query(value = "select id from items where owner_id = ?1 order by id limit ?2", nativeQuery = true)
+    List<Long> findIdsToPurge(Long userId, int limit);
+
+    @Query(value = "select count(*) from items where owner_id = ?1", nativeQuery = true)
+    long countToPurge(Long userId);
+
+    /**
+     * Скрывает вещи удалённого пользователя одним оператором: фильтр @Where у Item читает только этот флаг.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update items set deleted = true, updated_at = localtimestamp where owner_id = ?1", countQuery = "select 0", nativeQuery = true)
+    int markDeletedByOwnerId(Long userId);
+
+    /**
+     * Отвязывает чужие вещи от запросов пользователя, чтобы удаление запросов не удаляло их каскадом.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update items set request_id = null, updated_at = localtimestamp " +
+            "where request_id in (select id from item_requests where owner_id = ?1)", countQuery = "select 0", nativeQuery = true)
+    int detachFromRequestsOf(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from items i where i.id in (?1)", countQuery = "select 0", nativeQuery = true)
+    int purgeByIdIn(Collection<Long> ids);
 }
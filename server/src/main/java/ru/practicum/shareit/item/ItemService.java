@@ -1,8 +1,14 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.geo.GeoPoint;
+import ru.practicum.shareit.item.trending.TrendingDto;
+import ru.practicum.shareit.utils.Cursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
     ItemDto add(long id, ItemDto itemDto);
@@ -11,11 +17,30 @@ public interface ItemService {
 
     Item getItem(long id);
 
+    Map<Long, Item> getItems(Collection<Long> ids);
+
     ItemDto getById(long id, long userId);
 
     List<ItemDto> getAll(long userId, int from, int size);
 
-    List<ItemDto> searchText(long userId, String str, int from, int size);
+    List<ItemDto> searchText(long userId, String str, LocalDateTime start, LocalDateTime end, boolean fuzzy, int from, int size);
+
+    List<ItemDto> getAll(long userId, Cursor cursor, int size);
+
+    List<ItemDto> searchText(long userId, String str, LocalDateTime start, LocalDateTime end, boolean fuzzy,
+                             Cursor cursor, int size);
+
+    /**
+     * Вещи в радиусе radiusKm от center по возрастанию расстояния. Пустой text - просто ближайшие вещи.
+     */
+    List<ItemDto> searchNearby(long userId, String text, GeoPoint center, double radiusKm,
+                               LocalDateTime start, LocalDateTime end, boolean fuzzy, int from, int size);
+
+    List<String> suggest(String prefix, int size);
+
+    TrendingDto getTrending(int size);
 
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
+
+    List<CommentDto> getComments(long userId, long itemId, Cursor cursor, int size);
 }
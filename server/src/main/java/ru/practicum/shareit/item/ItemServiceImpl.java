@@ -4,11 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -16,26 +17,45 @@ import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.CommentView;
+import ru.practicum.shareit.item.geo.GeoPoint;
+import ru.practicum.shareit.item.geo.ItemGeoIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.SearchHit;
+import ru.practicum.shareit.item.trending.TrendingDto;
+import ru.practicum.shareit.item.trending.TrendingTracker;
+import ru.practicum.shareit.request.ItemRequestFeed;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.Cursor;
 import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Сколько новейших комментариев встраивается в ответ с вещью.
+     */
+    public static final int COMMENTS_PREVIEW_SIZE = 10;
+
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
@@ -44,16 +64,30 @@ public class ItemServiceImpl implements ItemService {
     private final CommentMapper commentMapper;
     private final BookingMapper bookingMapper;
     private final ItemRequestService itemRequestService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final TrendingTracker trendingTracker;
+    private final ItemCardCache itemCardCache;
+    private final ItemGeoIndex itemGeoIndex;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Override
     public ItemDto add(long id, ItemDto itemDto) {
-        userService.getById(id);
+        User owner = userService.getById(id);
+        validateLocation(itemDto);
         Item item = itemMapper.toItem(itemDto);
-        item.setOwner(userService.getById(id));
+        item.setOwner(owner);
         if (itemDto.getRequestId() != null) {
             item.setRequest(itemRequestService.reply(itemDto.getRequestId()));
         }
         itemRepository.save(item);
+        itemSearchIndex.index(item);
+        itemSuggestIndex.index(item);
+        itemGeoIndex.index(item);
+        itemRequestFeed.index(item);
+        itemSearchCache.invalidate(item);
         log.info("Добавлена вещь {}", item);
         return itemMapper.toItemDto(item);
     }
@@ -63,10 +97,19 @@ public class ItemServiceImpl implements ItemService {
         User user = userService.getUser(userId);
         Item item = getItem(itemId);
         if (item.getOwner().getId().equals(user.getId())) {
+            Item previous = Item.builder().id(itemId).name(item.getName()).description(item.getDescription())
+                    .available(item.isAvailable()).build();
             updateName(item, itemDto);
             updateDescription(item, itemDto);
             updateAvailable(item, itemDto);
+            updateLocation(item, itemDto);
             itemRepository.save(item);
+            itemSearchIndex.index(item);
+            itemSuggestIndex.index(item);
+            itemGeoIndex.index(item);
+            itemRequestFeed.index(item);
+            itemSearchCache.invalidate(previous, item);
+            itemCardCache.invalidate(itemId);
             return itemMapper.toItemDto(item);
         } else {
             throw new ParameterNotFoundException(String.format("Вы не являетесь владельцем вещи под номером %d", itemId));
@@ -78,67 +121,112 @@ public class ItemServiceImpl implements ItemService {
         return itemRepository.findById(id).orElseThrow(() -> new ParameterNotFoundException("Пользователь не найден"));
     }
 
+    @Override
+    public Map<Long, Item> getItems(Collection<Long> ids) {
+        return itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
     @Override
     public ItemDto getById(long id, long userId) {
-        Item item = getItem(id);
-        ItemDto itemDto = itemMapper.toItemDto(item);
-        if (itemDto.getOwner().getId().equals(userId)) {
-            bookingRepository.findFirst1ByItemIdAndStartBeforeOrderByStartDesc(id, LocalDateTime.now())
-                    .ifPresent(booking -> itemDto.setLastBooking(bookingMapper.toItemsBookingDto(booking)));
-            bookingRepository.findFirst1ByItemIdAndStartAfterAndStatusNotLikeOrderByStartAsc(id, LocalDateTime.now(), Status.REJECTED)
-                    .ifPresent(booking -> itemDto.setNextBooking(bookingMapper.toItemsBookingDto(booking)));
-        }
-        itemDto.setComments(commentRepository.findAllByItemId(item.getId())
-                .stream()
-                .map(commentMapper::toCommentDto)
-                .collect(toList()));
-        return itemDto;
+        return itemCardCache.get(id, userId, () -> loadCard(id, userId));
     }
 
     @Override
     public List<ItemDto> getAll(long userId, int from, int size) {
         PageRequest pageRequest = PaginationUtil.getPageRequestAsc(from, size, "id");
         Page<Item> itemsPage = itemRepository.findByOwnerId(userId, pageRequest);
-        List<Item> items = itemsPage.toList();
-
-        Map<Long, Booking> bookingsBeforeMap = bookingRepository.findByItemInAndStartBeforeOrderByStartDesc(items, LocalDateTime.now())
-                .stream()
-                .filter(booking -> booking.getItem() != null)
-                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (b1, b2) -> b1));
-        Map<Long, Booking> bookingsAfterMap = bookingRepository.findByItemInAndStartAfterAndStatusNotLikeOrderByStartAsc(items, LocalDateTime.now(), Status.REJECTED)
-                .stream()
-                .filter(booking -> booking.getItem() != null)
-                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (b1, b2) -> b1));
-        Map<Long, List<CommentDto>> commentsMap = commentRepository.findByItemIn(items, Sort.by(DESC, "created"))
-                .stream()
-                .filter(comment -> comment.getItem() != null)
-                .collect(groupingBy(comment -> comment.getItem().getId(), Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        return toOwnerItemDtos(itemsPage.toList());
+    }
 
-        List<ItemDto> itemDtos = items
-                .stream()
-                .map(itemMapper::toItemDto)
-                .peek(item -> {
-                    item.setComments(commentsMap.getOrDefault(item.getId(), List.of()));
-                    Optional.ofNullable(bookingsBeforeMap.get(item.getId()))
-                            .ifPresent(booking -> item.setLastBooking(bookingMapper.toItemsBookingDto(booking)));
-                    Optional.ofNullable(bookingsAfterMap.get(item.getId()))
-                            .ifPresent(booking -> item.setNextBooking(bookingMapper.toItemsBookingDto(booking)));
-                })
-                .collect(toList());
-        return itemDtos;
+    @Override
+    public List<ItemDto> getAll(long userId, Cursor cursor, int size) {
+        List<Item> items = itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, cursor.getId(),
+                PaginationUtil.getLimit(size));
+        return toOwnerItemDtos(items);
     }
 
     @Override
-    public List<ItemDto> searchText(long userId, String text, int from, int size) {
+    public List<ItemDto> searchText(long userId, String text, LocalDateTime start, LocalDateTime end, boolean fuzzy,
+                                    int from, int size) {
         if (text.isBlank()) {
             return List.of();
         } else {
             int pageNumber = (int) Math.ceil((double) from / size);
-            Page<Item> items = itemRepository.search(text, PageRequest.of(pageNumber, size));
-            return items.stream()
-                    .map(itemMapper::toItemDto)
-                    .collect(toList());
+            PageRequest pageRequest = PageRequest.of(pageNumber, size);
+            Predicate<Long> busy = busy(start, end);
+            Supplier<List<ItemDto>> loader = () -> findHitDtos(itemSearchIndex.searchHits(text, busy, fuzzy).stream()
+                    .skip(pageRequest.getOffset())
+                    .limit(size)
+                    .collect(toList()));
+            return start == null
+                    ? itemSearchCache.get(text, fuzzy, null, (int) pageRequest.getOffset(), size, loader)
+                    : loader.get();
+        }
+    }
+
+    @Override
+    public List<ItemDto> searchText(long userId, String text, LocalDateTime start, LocalDateTime end, boolean fuzzy,
+                                    Cursor cursor, int size) {
+        if (text.isBlank()) {
+            return List.of();
+        } else {
+            if (cursor.getScore() == null) {
+                throw new ValidationException("cursor не относится к поиску.");
+            }
+            double score = cursor.getScore();
+            Predicate<Long> busy = busy(start, end);
+            Supplier<List<ItemDto>> loader = () -> findHitDtos(itemSearchIndex.searchHits(text, busy, fuzzy).stream()
+                    .filter(hit -> hit.getScore() < score || (hit.getScore() == score && hit.getItemId() > cursor.getId()))
+                    .limit(size)
+                    .collect(toList()));
+            return start == null
+                    ? itemSearchCache.get(text, fuzzy, cursor, 0, size, loader)
+                    : loader.get();
+        }
+    }
+
+    @Override
+    public List<ItemDto> searchNearby(long userId, String text, GeoPoint center, double radiusKm,
+                                      LocalDateTime start, LocalDateTime end, boolean fuzzy, int from, int size) {
+        if (Math.abs(center.getLatitude()) > 90 || Math.abs(center.getLongitude()) > 180) {
+            throw new ValidationException("Некорректные координаты точки поиска.");
+        }
+        if (radiusKm <= 0) {
+            throw new ValidationException("Радиус поиска должен быть больше 0.");
         }
+        int pageNumber = (int) Math.ceil((double) from / size);
+        PageRequest pageRequest = PageRequest.of(pageNumber, size);
+        Predicate<Long> busy = busy(start, end);
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageRequest.getOffset() + size);
+        List<Long> ids = text.isBlank()
+                ? itemGeoIndex.nearest(center, radiusKm, busy, limit)
+                : itemGeoIndex.sortByDistance(itemSearchIndex.search(text, busy, fuzzy), center, radiusKm);
+        List<ItemDto> itemDtos = findItemDtos(ids.stream()
+                .skip(pageRequest.getOffset())
+                .limit(size)
+                .collect(toList()));
+        itemDtos.forEach(itemDto -> itemDto.setDistance(itemGeoIndex.distanceKm(itemDto.getId(), center)));
+        return itemDtos;
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        if (size <= 0 || size > ItemSuggestIndex.MAX_SIZE) {
+            throw new ValidationException(String.format("Количество подсказок должно быть от 1 до %d.", ItemSuggestIndex.MAX_SIZE));
+        }
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    @Override
+    public TrendingDto getTrending(int size) {
+        if (size <= 0 || size > TrendingTracker.CAPACITY) {
+            throw new ValidationException(String.format("Размер списка должен быть от 1 до %d.", TrendingTracker.CAPACITY));
+        }
+        return TrendingDto.builder()
+                .searches(trendingTracker.topSearches(size))
+                .items(findItemDtos(trendingTracker.topItems(size)))
+                .build();
     }
 
     @Override
@@ -148,12 +236,140 @@ public class ItemServiceImpl implements ItemService {
         if (!bookings.isEmpty()) {
             Comment comment = commentMapper.toComment(userService
                     .getById(userId), getItem(itemId), commentDto, LocalDateTime.now());
-            return commentMapper.toCommentDto(commentRepository.save(comment));
+            CommentDto saved = commentMapper.toCommentDto(commentRepository.save(comment));
+            itemCardCache.invalidate(itemId);
+            return saved;
         } else {
             throw new ValidationException("Вы не бронировали эту вещь или срок бронирвания ещё не истёк.");
         }
     }
 
+    @Override
+    public List<CommentDto> getComments(long userId, long itemId, Cursor cursor, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше 0.");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ParameterNotFoundException(String.format("Вещь с номером %d не найдена.", itemId));
+        }
+        if (cursor == null) {
+            return commentRepository.findDtosByItemId(itemId, PaginationUtil.getLimit(size));
+        }
+        if (cursor.getTime() == null) {
+            throw new ValidationException("cursor не относится к списку комментариев.");
+        }
+        return commentRepository.findDtosByItemIdBeforeCursor(itemId, cursor.getTime(), cursor.getId(),
+                PaginationUtil.getLimit(size));
+    }
+
+    /**
+     * Карточка владельца устаревает с началом ближайшего бронирования.
+     */
+    private ItemCardCache.Card loadCard(long id, long userId) {
+        Item item = getItem(id);
+        ItemDto itemDto = itemMapper.toItemDto(item);
+        LocalDateTime validUntil = null;
+        if (itemDto.getOwner().getId().equals(userId)) {
+            LocalDateTime now = LocalDateTime.now();
+            Booking last = null;
+            Booking next = null;
+            for (Booking booking : bookingRepository.findLastAndNextByItemId(id, now, Status.REJECTED)) {
+                if (booking.getStart().isBefore(now)) {
+                    last = last == null || booking.getId() > last.getId() ? booking : last;
+                } else {
+                    next = next == null || booking.getId() < next.getId() ? booking : next;
+                }
+            }
+            Optional.ofNullable(last).ifPresent(booking -> itemDto.setLastBooking(bookingMapper.toItemsBookingDto(booking)));
+            Optional.ofNullable(next).ifPresent(booking -> itemDto.setNextBooking(bookingMapper.toItemsBookingDto(booking)));
+            validUntil = next != null ? next.getStart() : null;
+        }
+        setComments(List.of(itemDto));
+        return new ItemCardCache.Card(itemDto, validUntil);
+    }
+
+    private List<ItemDto> toOwnerItemDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Map<Boolean, Map<Long, ItemBookingView>> bookingsMap = bookingRepository.findLastAndNextByItemIdIn(
+                        items.stream().map(Item::getId).collect(toList()), LocalDateTime.now())
+                .stream()
+                .collect(Collectors.partitioningBy(ItemBookingView::getLast,
+                        Collectors.toMap(ItemBookingView::getItemId, Function.identity())));
+        Map<Long, ItemBookingView> bookingsBeforeMap = bookingsMap.get(true);
+        Map<Long, ItemBookingView> bookingsAfterMap = bookingsMap.get(false);
+        List<ItemDto> itemDtos = items
+                .stream()
+                .map(itemMapper::toItemDto)
+                .peek(item -> {
+                    Optional.ofNullable(bookingsBeforeMap.get(item.getId()))
+                            .ifPresent(booking -> item.setLastBooking(bookingMapper.toItemsBookingDto(booking)));
+                    Optional.ofNullable(bookingsAfterMap.get(item.getId()))
+                            .ifPresent(booking -> item.setNextBooking(bookingMapper.toItemsBookingDto(booking)));
+                })
+                .collect(toList());
+        setComments(itemDtos);
+        return itemDtos;
+    }
+
+    /**
+     * Заполняет превью комментариев и их общее число одним запросом на всю страницу вещей.
+     */
+    private void setComments(List<ItemDto> itemDtos) {
+        Map<Long, List<CommentView>> commentsMap = commentRepository.findPreviewByItemIdIn(
+                        itemDtos.stream().map(ItemDto::getId).collect(toList()), COMMENTS_PREVIEW_SIZE)
+                .stream()
+                .collect(groupingBy(CommentView::getItemId));
+        for (ItemDto itemDto : itemDtos) {
+            List<CommentView> comments = commentsMap.getOrDefault(itemDto.getId(), List.of());
+            itemDto.setComments(comments.stream().map(commentMapper::toCommentDto).collect(toList()));
+            itemDto.setCommentsCount(comments.isEmpty() ? 0L : comments.get(0).getTotal());
+        }
+    }
+
+    /**
+     * Доступные вещи по id в порядке переданного списка: индексы узла могут отставать от базы.
+     */
+    private List<ItemDto> findItemDtos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = getItems(ids);
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .filter(Item::isAvailable)
+                .map(itemMapper::toItemDto)
+                .collect(toList());
+    }
+
+    /**
+     * Вещи в порядке результатов поиска с их релевантностью.
+     */
+    private List<ItemDto> findHitDtos(List<SearchHit> hits) {
+        Map<Long, Double> scores = hits.stream().collect(Collectors.toMap(SearchHit::getItemId, SearchHit::getScore));
+        List<ItemDto> itemDtos = findItemDtos(hits.stream().map(SearchHit::getItemId).collect(toList()));
+        itemDtos.forEach(itemDto -> itemDto.setScore(scores.get(itemDto.getId())));
+        return itemDtos;
+    }
+
+    /**
+     * Занята ли вещь в период: проверяется по индексу бронирований только для найденных вещей.
+     */
+    private Predicate<Long> busy(LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return itemId -> false;
+        }
+        if (start == null || end == null) {
+            throw new ValidationException("Для поиска свободных вещей нужно указать и начало, и конец периода.");
+        }
+        if (!end.isAfter(start)) {
+            throw new ValidationException("Конец периода должен быть позже начала.");
+        }
+        return itemId -> bookingIntervalIndex.isBusy(itemId, start, end);
+    }
+
     private void updateName(Item item, ItemDto itemDto) {
         if (itemDto.getName() == null) {
             return;
@@ -170,6 +386,25 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    private void updateLocation(Item item, ItemDto itemDto) {
+        if (itemDto.getLatitude() == null && itemDto.getLongitude() == null) {
+            return;
+        }
+        validateLocation(itemDto);
+        item.setLatitude(itemDto.getLatitude());
+        item.setLongitude(itemDto.getLongitude());
+    }
+
+    private void validateLocation(ItemDto itemDto) {
+        if ((itemDto.getLatitude() == null) != (itemDto.getLongitude() == null)) {
+            throw new ValidationException("Координаты вещи задаются парой latitude и longitude.");
+        }
+        if (itemDto.getLatitude() != null
+                && (Math.abs(itemDto.getLatitude()) > 90 || Math.abs(itemDto.getLongitude()) > 180)) {
+            throw new ValidationException("Некорректные координаты вещи.");
+        }
+    }
+
     private void updateAvailable(Item item, ItemDto itemDto) {
         if (itemDto.getAvailable() == null) {
             return;
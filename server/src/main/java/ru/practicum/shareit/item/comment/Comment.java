@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.comment;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@Where(clause = "deleted = false")
 @Data
 @Builder
 @AllArgsConstructor
@@ -26,4 +26,13 @@ public class CommentMapper {
                 .created(comment.getCreated())
                 .build();
     }
+
+    public CommentDto toCommentDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .authorName(comment.getAuthorName())
+                .text(comment.getText())
+                .created(comment.getCreated())
+                .build();
+    }
 }
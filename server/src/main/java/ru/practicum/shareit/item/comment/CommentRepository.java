@@ -1,15 +1,56 @@
 package ru.practicum.shareit.item.comment;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.item.Item;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("select new ru.practicum.shareit.item.comment.CommentDto(c.id, c.text, a.name, c.created) " +
+            "from Comment c join c.author a where c.item.id = ?1 order by c.created desc, c.id desc")
+    List<CommentDto> findDtosByItemId(Long itemId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.comment.CommentDto(c.id, c.text, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            "order by c.created desc, c.id desc")
+    List<CommentDto> findDtosByItemIdBeforeCursor(Long itemId, LocalDateTime cursorCreated, Long cursorId, Pageable pageable);
+
+    /**
+     * Не больше limit новейших комментариев на каждую вещь и общее число комментариев к ней одним запросом.
+     */
+    @Query(value = "select t.id as \"id\", t.item_id as \"itemId\", t.text as \"text\", t.author_name as \"authorName\", " +
+            "t.created as \"created\", t.total as \"total\" " +
+            "from (select c.id, c.item_id, c.text, u.name as author_name, c.created, " +
+            "row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn, " +
+            "count(*) over (partition by c.item_id) as total " +
+            "from comments c join users u on u.id = c.author_id where c.item_id in (?1) and c.deleted = false) t " +
+            "where t.rn <= ?2 order by t.item_id, t.created desc, t.id desc", nativeQuery = true)
+    List<CommentView> findPreviewByItemIdIn(Collection<Long> itemIds, int limit);
+
+    /**
+     * Комментарии удалённого пользователя и комментарии к его вещам, не больше limit за раз.
+     */
+    @Query(value = "select id from comments where author_id = ?1 " +
+            "or item_id in (select id from items where owner_id = ?1) limit ?2", nativeQuery = true)
+    List<Long> findIdsToPurge(Long userId, int limit);
+
+    @Query(value = "select count(*) from comments where author_id = ?1 " +
+            "or item_id in (select id from items where owner_id = ?1)", nativeQuery = true)
+    long countToPurge(Long userId);
+
     @Transactional
-    List<Comment> findAllByItemId(Long itemId);
+    @Modifying
+    @Query(value = "update comments set deleted = true where author_id = ?1", countQuery = "select 0", nativeQuery = true)
+    int markDeletedByAuthorId(Long userId);
 
-    List<Comment> findByItemIn(List<Item> items, Sort created);
-}
\ No newline at end of file
+    @Transactional
+    @Modifying
+    @Query(value = "delete from comments c where c.id in (?1)", countQuery = "select 0", nativeQuery = true)
+    int purgeByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.item.geo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Сетка по широте и долготе с координатами доступных вещей.
+ * Ближайшие вещи выдаются обходом best-first: в одной очереди лежат ячейки с нижней оценкой расстояния
+ * до точки и вещи с точным расстоянием, поэтому вещи извлекаются строго по возрастанию расстояния,
+ * а просматриваются только ячейки ближе найденного k-го соседа и радиуса.
+ */
+@Component
+public class ItemGeoIndex {
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, GeoPoint> points = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemGeoIndex(@Value("${shareit.geo.cell-degrees:0.05}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Добавить или переместить вещь. Недоступная вещь или вещь без координат из сетки удаляется.
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.getId());
+            if (item.isAvailable() && item.getLatitude() != null && item.getLongitude() != null) {
+                GeoPoint point = new GeoPoint(item.getLatitude(), item.getLongitude());
+                points.put(item.getId(), point);
+                cells.computeIfAbsent(cellOf(point), key -> new HashSet<>()).add(item.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Не больше limit ближайших к center вещей в пределах радиуса, по возрастанию расстояния, затем по id.
+     * excluded проверяется только для вещей, дошедших до результата в порядке расстояния.
+     */
+    public List<Long> nearest(GeoPoint center, double radiusKm, Predicate<Long> excluded, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>();
+            PriorityQueue<Entry> queue = new PriorityQueue<>(Entry.ORDER);
+            Set<Long> visited = new HashSet<>();
+            long start = cellOf(center);
+            visited.add(start);
+            queue.add(new Entry(0, start, false));
+            while (!queue.isEmpty() && result.size() < limit) {
+                Entry entry = queue.poll();
+                if (entry.item) {
+                    if (!excluded.test(entry.id)) {
+                        result.add(entry.id);
+                    }
+                    continue;
+                }
+                for (Long id : cells.getOrDefault(entry.id, Set.of())) {
+                    double distance = center.distanceKm(points.get(id));
+                    if (distance <= radiusKm) {
+                        queue.add(new Entry(distance, id, true));
+                    }
+                }
+                for (long neighbour : neighbours(entry.id)) {
+                    if (visited.add(neighbour)) {
+                        double bound = minDistanceKm(center, neighbour);
+                        if (bound <= radiusKm) {
+                            queue.add(new Entry(bound, neighbour, false));
+                        }
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вещи из ids в пределах радиуса по возрастанию расстояния. Для уже отобранных текстовым поиском вещей.
+     */
+    public List<Long> sortByDistance(Collection<Long> ids, GeoPoint center, double radiusKm) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> distances = new HashMap<>();
+            for (Long id : ids) {
+                GeoPoint point = points.get(id);
+                if (point != null) {
+                    double distance = center.distanceKm(point);
+                    if (distance <= radiusKm) {
+                        distances.put(id, distance);
+                    }
+                }
+            }
+            return distances.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Double distanceKm(long itemId, GeoPoint center) {
+        lock.readLock().lock();
+        try {
+            GeoPoint point = points.get(itemId);
+            return point == null ? null : center.distanceKm(point);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long itemId) {
+        GeoPoint previous = points.remove(itemId);
+        if (previous != null) {
+            long cell = cellOf(previous);
+            Set<Long> ids = cells.get(cell);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private long cellOf(GeoPoint point) {
+        int row = Math.min(rows - 1, (int) Math.floor((point.getLatitude() + 90) / cellDegrees));
+        int column = Math.floorMod((int) Math.floor((point.getLongitude() + 180) / cellDegrees), columns);
+        return (long) row * columns + column;
+    }
+
+    /**
+     * Соседние ячейки, по долготе сетка замкнута.
+     */
+    private List<Long> neighbours(long cell) {
+        int row = (int) (cell / columns);
+        int column = (int) (cell % columns);
+        List<Long> result = new ArrayList<>(8);
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (r != row || dc != 0) {
+                    long neighbour = (long) r * columns + Math.floorMod(column + dc, columns);
+                    if (neighbour != cell) {
+                        result.add(neighbour);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Точное расстояние от точки до ячейки. Если точка не попадает в ячейку по долготе, ближайшая точка
+     * лежит на ближнем меридиане ячейки: в основании перпендикуляра из центра или на краю отрезка.
+     */
+    private double minDistanceKm(GeoPoint center, long cell) {
+        int row = (int) (cell / columns);
+        int column = (int) (cell % columns);
+        double south = row * cellDegrees - 90;
+        double north = Math.min(90, south + cellDegrees);
+        double west = column * cellDegrees - 180;
+        double lat = center.getLatitude();
+        double east = ((center.getLongitude() - west) % 360 + 360) % 360;
+        if (east <= cellDegrees) {
+            return GeoPoint.distanceKm(lat, 0, clamp(lat, south, north), 0);
+        }
+        double toEastEdge = east - cellDegrees;
+        double toWestEdge = 360 - east;
+        double meridian = toEastEdge < toWestEdge ? west + cellDegrees : west;
+        double deltaLon = Math.min(toEastEdge, toWestEdge);
+        double cosDelta = Math.cos(Math.toRadians(deltaLon));
+        double foot = cosDelta > 0
+                ? Math.toDegrees(Math.atan(Math.tan(Math.toRadians(lat)) / cosDelta))
+                : Math.copySign(90, lat);
+        return GeoPoint.distanceKm(lat, center.getLongitude(), clamp(foot, south, north), meridian);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        static final Comparator<Entry> ORDER = Comparator.<Entry>comparingDouble(entry -> entry.distance)
+                .thenComparing(entry -> entry.item)
+                .thenComparingLong(entry -> entry.id);
+
+        private final double distance;
+        private final long id;
+        private final boolean item;
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Часть инвертированного индекса: словарь термов с позициями вхождений по вещам своего сегмента.
+ * Чтение и запись разделены блокировкой, поэтому сегменты опрашиваются параллельно.
+ */
+class IndexSegment {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    void put(long itemId, Map<String, Integer> frequencies) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+            documents.put(itemId, frequencies);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(itemId, entry.getValue());
+                length += entry.getValue();
+            }
+            lengths.put(itemId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<String> terms(long itemId) {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(documents.getOrDefault(itemId, Map.of()).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long totalLength() {
+        lock.readLock().lock();
+        try {
+            return totalLength;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Set<String> terms() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(postings.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Документная частота термов словаря, начинающихся с одного из префиксов.
+     */
+    Map<String, Integer> documentFrequencies(Collection<String> prefixes) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> frequencies = new HashMap<>();
+            prefixes.forEach(prefix -> prefixRange(prefix).forEach((term, items) -> frequencies.put(term, items.size())));
+            return frequencies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 для вещей, в которых найдены все термы запроса. Каждый терм запроса задан списком префиксов
+     * и раскрывается в термы словаря с этими префиксами, веса которых переданы в idf.
+     * excluded проверяется один раз для каждой найденной вещи, после пересечения по всем термам.
+     */
+    Map<Long, Double> score(List<List<String>> queryTerms, Map<String, Double> idf, double averageLength,
+                            Predicate<Long> excluded) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (List<String> prefixes : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                expand(prefixes).forEach((term, items) -> items.forEach((itemId, frequency) -> {
+                    double weight = weight(idf.getOrDefault(term, 0.0), frequency,
+                            lengths.get(itemId), averageLength);
+                    termScores.merge(itemId, weight, Double::sum);
+                }));
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> previous = scores;
+                    termScores.keySet().retainAll(previous.keySet());
+                    termScores.replaceAll((itemId, weight) -> weight + previous.get(itemId));
+                    scores = termScores;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null) {
+                return Map.of();
+            }
+            scores.keySet().removeIf(excluded);
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double weight(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private Map<String, Map<Long, Integer>> expand(List<String> prefixes) {
+        if (prefixes.size() == 1) {
+            return prefixRange(prefixes.get(0));
+        }
+        Map<String, Map<Long, Integer>> terms = new HashMap<>();
+        prefixes.forEach(prefix -> terms.putAll(prefixRange(prefix)));
+        return terms;
+    }
+
+    private NavigableMap<String, Map<Long, Integer>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void removeUnlocked(long itemId) {
+        Map<String, Integer> previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        previous.keySet().forEach(term -> {
+            Map<Long, Integer> items = postings.get(term);
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= lengths.remove(itemId);
+    }
+}
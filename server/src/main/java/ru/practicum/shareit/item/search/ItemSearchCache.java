@@ -0,0 +1,185 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц поиска без периода, сгруппированных по запросу. Вытеснение - W-TinyLFU из Caffeine,
+ * вес запроса - число вещей во всех его страницах. При изменении вещи запрос сбрасывается целиком,
+ * если вещь есть в одной из его страниц или подходила либо теперь подходит под него: иначе страницы
+ * с большим смещением остались бы сдвинутыми. Попадания и промахи считаются по страницам, обход
+ * кэша при сбросе их не искажает. Метрики публикуются как cache.* с тегом cache=itemSearch.
+ */
+@Component
+public class ItemSearchCache {
+    private final Cache<Key, Pages> cache;
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    private final AtomicLong version = new AtomicLong();
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-weight:100000}") long maxWeight, MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Pages pages) -> pages.weight())
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+    /**
+     * Страница из кэша или загруженная loader. Задаётся либо смещением from, либо cursor, после которого (after).
+     */
+    public List<ItemDto> get(String text, boolean fuzzy, Cursor after, int from, int size, Supplier<List<ItemDto>> loader) {
+        Key key = new Key(TextAnalyzer.analyze(text), fuzzy);
+        PageKey pageKey = new PageKey(after, from, size);
+        Pages pages = cache.asMap().get(key);
+        List<ItemDto> page = pages == null ? null : pages.get(pageKey);
+        if (page != null) {
+            stats.recordHits(1);
+            return page;
+        }
+        stats.recordMisses(1);
+        long loadedAt = version.get();
+        List<ItemDto> loaded = loader.get();
+        cache.asMap().compute(key, (ignored, current) -> (current == null ? Pages.EMPTY : current).with(pageKey, loaded));
+        if (version.get() != loadedAt) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    /**
+     * Вызывается после обновления поискового индекса. Страница, загружаемая одновременно с изменением,
+     * в кэше не остаётся.
+     */
+    public void invalidate(Item item) {
+        invalidate(item.getId(), terms(item));
+    }
+
+    /**
+     * То же для изменённой вещи: сбрасываются и запросы, под которые подходила её прежняя версия.
+     */
+    public void invalidate(Item previous, Item item) {
+        Set<String> terms = terms(item);
+        terms.addAll(terms(previous));
+        invalidate(previous.getId(), terms);
+    }
+
+    /**
+     * То же, когда прежняя версия известна только по термам из поискового индекса.
+     */
+    public void invalidate(Set<String> previousTerms, Item item) {
+        Set<String> terms = terms(item);
+        terms.addAll(previousTerms);
+        invalidate(item.getId(), terms);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void invalidate(long itemId, Set<String> terms) {
+        version.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> entry.getValue().contains(itemId) || entry.getKey().matches(terms));
+    }
+
+    private static Set<String> terms(Item item) {
+        return item.isAvailable()
+                ? new HashSet<>(TextAnalyzer.analyze(item.getName() + " " + item.getDescription()))
+                : new HashSet<>();
+    }
+
+    /**
+     * Неизменяемый набор страниц одного запроса: каждая новая страница заменяет значение целиком,
+     * поэтому вес в Caffeine всегда актуален.
+     */
+    private static class Pages {
+        static final Pages EMPTY = new Pages(Map.of(), Set.of());
+
+        private final Map<PageKey, List<ItemDto>> pages;
+        private final Set<Long> itemIds;
+
+        Pages(Map<PageKey, List<ItemDto>> pages, Set<Long> itemIds) {
+            this.pages = pages;
+            this.itemIds = itemIds;
+        }
+
+        List<ItemDto> get(PageKey pageKey) {
+            return pages.get(pageKey);
+        }
+
+        boolean contains(long itemId) {
+            return itemIds.contains(itemId);
+        }
+
+        Pages with(PageKey pageKey, List<ItemDto> page) {
+            Map<PageKey, List<ItemDto>> newPages = new HashMap<>(pages);
+            newPages.put(pageKey, page);
+            Set<Long> newItemIds = new HashSet<>(itemIds);
+            page.forEach(itemDto -> newItemIds.add(itemDto.getId()));
+            return new Pages(newPages, newItemIds);
+        }
+
+        int weight() {
+            return pages.size() + itemIds.size();
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+        private final Cursor after;
+        private final int from;
+        private final int size;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final List<String> terms;
+        private final boolean fuzzy;
+
+        /**
+         * Подойдёт ли под запрос вещь с такими термами. Для нечёткого режима проверяются начала терма
+         * той же длины, что и у терма запроса, с учётом допустимого числа опечаток.
+         */
+        boolean matches(Set<String> itemTerms) {
+            if (itemTerms.isEmpty()) {
+                return false;
+            }
+            return terms.stream().allMatch(queryTerm -> itemTerms.stream().anyMatch(itemTerm -> matches(queryTerm, itemTerm)));
+        }
+
+        private boolean matches(String queryTerm, String itemTerm) {
+            if (itemTerm.startsWith(queryTerm)) {
+                return true;
+            }
+            int maxDistance = fuzzy ? ItemSearchIndex.maxDistance(queryTerm) : 0;
+            for (int length = queryTerm.length() - maxDistance; length <= queryTerm.length() + maxDistance; length++) {
+                if (length > 0 && length <= itemTerm.length()
+                        && BkTree.distance(queryTerm, itemTerm.substring(0, length), maxDistance) <= maxDistance) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс по названию и описанию доступных вещей с ранжированием BM25.
+ * Вещи распределены по сегментам по id, запрос выполняется по сегментам параллельно.
+ * Термы запроса сравниваются с началом термов вещи, все термы запроса должны найтись.
+ * В нечётком режиме терм запроса дополняется термами словаря в пределах расстояния Левенштейна,
+ * которые ищутся по BK-дереву. Дерево читают параллельно под блокировкой чтения, пополняют под блокировкой записи.
+ * Заполняется ItemIndexLoader.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final int NAME_WEIGHT = 2;
+
+    private final IndexSegment[] segments;
+    private final ReadWriteLock vocabularyLock = new ReentrantReadWriteLock();
+    private BkTree vocabulary = new BkTree();
+
+    public ItemSearchIndex(@Value("${shareit.search.segments:4}") int segments) {
+        this.segments = new IndexSegment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new IndexSegment();
+        }
+    }
+
+    /**
+     * Добавить вещь в индекс или обновить её. Недоступная вещь из индекса удаляется.
+     */
+    public void index(Item item) {
+        IndexSegment segment = segment(item.getId());
+        if (!item.isAvailable()) {
+            segment.remove(item.getId());
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextAnalyzer.analyze(item.getName()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        TextAnalyzer.analyze(item.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        segment.put(item.getId(), frequencies);
+        addToVocabulary(frequencies.keySet());
+    }
+
+    public void remove(long itemId) {
+        segment(itemId).remove(itemId);
+    }
+
+    /**
+     * Термы проиндексированной версии вещи, пусто, если её нет в индексе.
+     */
+    public Set<String> terms(long itemId) {
+        return segment(itemId).terms(itemId);
+    }
+
+    /**
+     * Id найденных вещей по убыванию релевантности, при равной релевантности - по возрастанию id.
+     */
+    public List<Long> search(String text, Predicate<Long> excluded) {
+        return search(text, excluded, false);
+    }
+
+    public List<Long> search(String text, Predicate<Long> excluded, boolean fuzzy) {
+        return searchHits(text, excluded, fuzzy).stream()
+                .map(SearchHit::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * То же с релевантностью каждой вещи: по паре (релевантность, id) строится cursor поиска.
+     * excluded проверяется только для вещей, подошедших под запрос.
+     */
+    public List<SearchHit> searchHits(String text, Predicate<Long> excluded, boolean fuzzy) {
+        List<List<String>> queryTerms = TextAnalyzer.analyze(text).stream()
+                .distinct()
+                .map(term -> fuzzy ? expandFuzzy(term) : List.of(term))
+                .collect(Collectors.toList());
+        long documents = size();
+        if (queryTerms.isEmpty() || documents == 0) {
+            return List.of();
+        }
+        Set<String> prefixes = queryTerms.stream().flatMap(List::stream).collect(Collectors.toSet());
+        double averageLength = (double) Arrays.stream(segments).mapToLong(IndexSegment::totalLength).sum() / documents;
+
+        Map<String, Integer> frequencies = Arrays.stream(segments)
+                .parallel()
+                .flatMap(segment -> segment.documentFrequencies(prefixes).entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Integer::sum));
+        Map<String, Double> idf = new HashMap<>();
+        frequencies.forEach((term, frequency) ->
+                idf.put(term, Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5))));
+
+        return Arrays.stream(segments)
+                .parallel()
+                .flatMap(segment -> segment.score(queryTerms, idf, averageLength, excluded).entrySet().stream())
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .map(entry -> new SearchHit(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return Arrays.stream(segments).mapToInt(IndexSegment::size).sum();
+    }
+
+    /**
+     * Допустимое число опечаток зависит от длины терма: в коротких термах опечатки не ищутся.
+     */
+    static int maxDistance(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 6 ? 1 : 2;
+    }
+
+    private List<String> expandFuzzy(String term) {
+        int maxDistance = maxDistance(term);
+        if (maxDistance == 0) {
+            return List.of(term);
+        }
+        List<String> terms;
+        vocabularyLock.readLock().lock();
+        try {
+            terms = vocabulary.search(term, maxDistance);
+        } finally {
+            vocabularyLock.readLock().unlock();
+        }
+        if (!terms.contains(term)) {
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    /**
+     * Словарь только пополняется, поэтому, когда устаревших термов становится больше живых, он строится заново.
+     */
+    private void addToVocabulary(Set<String> terms) {
+        vocabularyLock.writeLock().lock();
+        try {
+            terms.forEach(vocabulary::add);
+            int liveTerms = Arrays.stream(segments).mapToInt(IndexSegment::termCount).sum();
+            if (vocabulary.size() > 2 * liveTerms + 1000) {
+                BkTree rebuilt = new BkTree();
+                Arrays.stream(segments).flatMap(segment -> segment.terms().stream()).forEach(rebuilt::add);
+                vocabulary = rebuilt;
+            }
+        } finally {
+            vocabularyLock.writeLock().unlock();
+        }
+    }
+
+    private IndexSegment segment(long itemId) {
+        return segments[(int) Math.floorMod(itemId, (long) segments.length)];
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Префиксное дерево названий доступных вещей для подсказок при вводе.
+ * Название попадает в дерево с начала каждого своего слова. В каждом узле хранится готовый
+ * список лучших MAX_SIZE названий поддерева, поэтому подсказка - это спуск по префиксу.
+ * Названия упорядочены по числу вещей с таким названием, затем по алфавиту.
+ */
+@Component
+public class ItemSuggestIndex {
+    public static final int MAX_SIZE = 10;
+    private static final Comparator<Suggestion> ORDER = Comparator.comparingInt(Suggestion::getCount).reversed()
+            .thenComparing(Suggestion::getName);
+
+    private final Node root = new Node();
+    private final Map<Long, String> names = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавить название вещи или обновить его. Недоступная вещь из подсказок удаляется.
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            String previous = names.remove(item.getId());
+            if (previous != null) {
+                update(previous, -1);
+            }
+            if (item.isAvailable()) {
+                names.put(item.getId(), item.getName());
+                update(item.getName(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            String previous = names.remove(itemId);
+            if (previous != null) {
+                update(previous, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String key = String.join(" ", TextAnalyzer.words(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return node.top.stream()
+                    .limit(size)
+                    .map(Suggestion::getName)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(String name, int delta) {
+        List<String> words = TextAnalyzer.words(name);
+        for (int i = 0; i < words.size(); i++) {
+            update(String.join(" ", words.subList(i, words.size())), name, delta);
+        }
+    }
+
+    private void update(String key, String name, int delta) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            path.push(node);
+        }
+        int count = node.names.getOrDefault(name, 0) + delta;
+        if (count > 0) {
+            node.names.put(name, count);
+        } else {
+            node.names.remove(name);
+        }
+
+        Node child = null;
+        char[] chars = key.toCharArray();
+        int depth = chars.length;
+        while (!path.isEmpty()) {
+            Node current = path.pop();
+            if (child != null && child.isEmpty()) {
+                current.children.remove(chars[depth]);
+            }
+            current.recalculate();
+            child = current;
+            depth--;
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<String, Integer> names = new HashMap<>();
+        private List<Suggestion> top = List.of();
+
+        private boolean isEmpty() {
+            return children.isEmpty() && names.isEmpty();
+        }
+
+        /**
+         * Одно название может дойти до узла через разные слова, поэтому берётся наибольший счётчик.
+         */
+        private void recalculate() {
+            Map<String, Integer> candidates = new HashMap<>(names);
+            children.values().forEach(node -> node.top.forEach(suggestion ->
+                    candidates.merge(suggestion.getName(), suggestion.getCount(), Math::max)));
+            List<Suggestion> best = new ArrayList<>();
+            candidates.forEach((name, count) -> best.add(new Suggestion(name, count)));
+            best.sort(ORDER);
+            top = best.size() > MAX_SIZE ? List.copyOf(best.subList(0, MAX_SIZE)) : List.copyOf(best);
+        }
+    }
+
+    @Value
+    private static class Suggestion {
+        String name;
+        int count;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Найденная вещь и её релевантность по BM25.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SearchHit {
+    private final long itemId;
+    private final double score;
+}
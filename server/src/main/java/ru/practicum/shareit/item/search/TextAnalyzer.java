@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбивает текст на термы: слова из букв и цифр в нижнем регистре, ё заменяется на е,
+ * у русских и английских слов отбрасываются типовые окончания.
+ */
+public final class TextAnalyzer {
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final String[] SUFFIXES = {
+        "иями", "ями", "ами", "ией", "ого", "его", "ому", "ему", "ыми", "ими",
+        "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ом", "ем", "ам", "ям", "ах", "ях",
+        "ую", "юю", "ью", "ов", "ев", "ия", "ие",
+        "а", "я", "ы", "и", "е", "у", "ю", "о", "ь", "й",
+        "ing", "ies", "es", "ed", "s"
+    };
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = words(text);
+        terms.replaceAll(TextAnalyzer::stem);
+        return terms;
+    }
+
+    /**
+     * Слова текста в нижнем регистре и с заменой ё на е, без отбрасывания окончаний.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(fold(word.toString()));
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(fold(word.toString()));
+        }
+        return words;
+    }
+
+    private static String fold(String word) {
+        return word.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.trending;
+
+/**
+ * Count-min sketch: оценка частоты ключа сверху, память depth * width счётчиков независимо от числа ключей.
+ * Счётчики дробные, чтобы их можно было затухать умножением.
+ */
+class CountMinSketch {
+    private final double[][] counters;
+    private final int width;
+
+    CountMinSketch(int depth, int width) {
+        this.counters = new double[depth][width];
+        this.width = width;
+    }
+
+    /**
+     * Увеличить счётчики ключа и вернуть новую оценку его частоты.
+     */
+    double add(Object key, double weight) {
+        double estimate = Double.MAX_VALUE;
+        int hash = key.hashCode();
+        for (int row = 0; row < counters.length; row++) {
+            int column = column(hash, row);
+            counters[row][column] += weight;
+            estimate = Math.min(estimate, counters[row][column]);
+        }
+        return estimate;
+    }
+
+    double estimate(Object key) {
+        double estimate = Double.MAX_VALUE;
+        int hash = key.hashCode();
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    void scale(double factor) {
+        for (double[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    private int column(int hash, int row) {
+        int h = hash * (0x9E3779B9 + 2 * row + 1);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return Math.floorMod(h, width);
+    }
+}
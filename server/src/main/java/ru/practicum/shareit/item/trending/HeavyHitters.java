@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.trending;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Приближённый top-k частых ключей: частоты оценивает count-min sketch, кандидаты хранятся в таблице
+ * фиксированного размера, упорядоченной по оценке, при переполнении вытесняется кандидат с наименьшей.
+ * Все оценки затухают вдвое за halfLife, поэтому старые всплески уходят из топа.
+ * Запросы только кладут ключ в неблокирующий буфер. Sketch и кандидатов обновляет один поток в drain,
+ * он же публикует снимок топа, который читается без блокировок. Если буфер переполнен до очередного drain,
+ * лишние ключи отбрасываются: под перегрузкой учёт становится выборочным.
+ */
+class HeavyHitters<K> {
+    static final int BUFFER_CAPACITY = 1 << 16;
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 2048;
+    private static final double MIN_SCALE = 1e-3;
+
+    private final CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+    private final Map<K, Candidate<K>> candidates = new HashMap<>();
+    private final NavigableSet<Candidate<K>> byEstimate = new TreeSet<>(Candidate.ORDER);
+    private final Queue<K> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final int capacity;
+    private final long halfLifeMillis;
+    private final LongSupplier clock;
+    private long decayedAt;
+    private long sequence;
+    private volatile List<K> snapshot = List.of();
+
+    HeavyHitters(int capacity, Duration halfLife, LongSupplier clock) {
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.clock = clock;
+        this.decayedAt = clock.getAsLong();
+    }
+
+    void add(K key) {
+        if (buffered.incrementAndGet() > BUFFER_CAPACITY) {
+            buffered.decrementAndGet();
+            return;
+        }
+        buffer.offer(key);
+    }
+
+    /**
+     * Переносит накопленные ключи в sketch и обновляет снимок топа.
+     */
+    synchronized void drain() {
+        decay();
+        for (K key = buffer.poll(); key != null; key = buffer.poll()) {
+            buffered.decrementAndGet();
+            record(key);
+        }
+        snapshot = byEstimate.descendingSet().stream()
+                .map(candidate -> candidate.key)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Топ на момент последнего drain.
+     */
+    List<K> top(int size) {
+        List<K> top = snapshot;
+        return top.subList(0, Math.min(size, top.size()));
+    }
+
+    synchronized double estimate(K key) {
+        decay();
+        return sketch.estimate(key);
+    }
+
+    private void record(K key) {
+        double estimate = sketch.add(key, 1);
+        Candidate<K> current = candidates.get(key);
+        if (current != null) {
+            byEstimate.remove(current);
+        } else if (candidates.size() >= capacity) {
+            Candidate<K> weakest = byEstimate.first();
+            if (weakest.estimate >= estimate) {
+                return;
+            }
+            byEstimate.pollFirst();
+            candidates.remove(weakest.key);
+        }
+        Candidate<K> candidate = new Candidate<>(key, estimate, sequence++);
+        candidates.put(key, candidate);
+        byEstimate.add(candidate);
+    }
+
+    /**
+     * Затухание применяется при обращении, но не чаще, чем раз в тысячную долю halfLife.
+     */
+    private void decay() {
+        long now = clock.getAsLong();
+        long elapsed = now - decayedAt;
+        if (elapsed < halfLifeMillis * MIN_SCALE) {
+            return;
+        }
+        double factor = Math.pow(0.5, (double) elapsed / halfLifeMillis);
+        sketch.scale(factor);
+        List<Candidate<K>> decayed = new ArrayList<>(byEstimate.size());
+        byEstimate.forEach(candidate -> decayed.add(
+                new Candidate<>(candidate.key, candidate.estimate * factor, candidate.sequence)));
+        byEstimate.clear();
+        decayed.forEach(candidate -> {
+            byEstimate.add(candidate);
+            candidates.put(candidate.key, candidate);
+        });
+        decayedAt = now;
+    }
+
+    private static class Candidate<K> {
+        static final Comparator<Candidate<?>> ORDER = Comparator.<Candidate<?>>comparingDouble(candidate -> candidate.estimate)
+                .thenComparingLong(candidate -> candidate.sequence);
+
+        private final K key;
+        private final double estimate;
+        private final long sequence;
+
+        Candidate(K key, double estimate, long sequence) {
+            this.key = key;
+            this.estimate = estimate;
+            this.sequence = sequence;
+        }
+    }
+}
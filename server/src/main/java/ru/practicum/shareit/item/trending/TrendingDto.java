@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.trending;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingDto {
+    private List<String> searches;
+    private List<ItemDto> items;
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.trending;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.search.TextAnalyzer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Популярные поисковые запросы и просматриваемые вещи. Учёт приближённый и занимает фиксированную память.
+ * Топ пересчитывается в фоне раз в drain-interval и отдаётся с этой задержкой.
+ */
+@Component
+public class TrendingTracker {
+    public static final int CAPACITY = 100;
+
+    private final HeavyHitters<String> searches;
+    private final HeavyHitters<Long> views;
+    private final Duration drainInterval;
+    private ScheduledExecutorService executor;
+
+    public TrendingTracker(@Value("${shareit.trending.half-life:PT1H}") Duration halfLife,
+                           @Value("${shareit.trending.drain-interval:PT1S}") Duration drainInterval) {
+        this.searches = new HeavyHitters<>(CAPACITY, halfLife, System::currentTimeMillis);
+        this.views = new HeavyHitters<>(CAPACITY, halfLife, System::currentTimeMillis);
+        this.drainInterval = drainInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, drainInterval.toMillis(), drainInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    void drain() {
+        searches.drain();
+        views.drain();
+    }
+
+    public void recordSearch(String text) {
+        String query = String.join(" ", TextAnalyzer.words(text));
+        if (!query.isEmpty()) {
+            searches.add(query);
+        }
+    }
+
+    public void recordView(long itemId) {
+        views.add(itemId);
+    }
+
+    public List<String> topSearches(int size) {
+        return searches.top(size);
+    }
+
+    public List<Long> topItems(int size) {
+        return views.top(size);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import lombok.*;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.*;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "item_requests")
+@Where(clause = "deleted = false")
 @Getter
 @Setter
 @ToString
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.util.List;
 
@@ -27,16 +30,24 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                    @RequestParam(defaultValue = "0") int from,
-                                                    @RequestParam(defaultValue = "10") int size) {
-        return itemRequestService.getAllByUser(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                    @RequestParam(defaultValue = "0") int from,
+                                                                    @RequestParam(defaultValue = "10") int size,
+                                                                    @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> requests = cursor == null
+                ? itemRequestService.getAllByUser(userId, from, size)
+                : itemRequestService.getAllByUser(userId, Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(requests, size, request -> Cursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                               @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size) {
-        return itemRequestService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> requests = cursor == null
+                ? itemRequestService.getAll(userId, from, size)
+                : itemRequestService.getAll(userId, Cursor.decode(cursor), size);
+        return PaginationUtil.withNextCursor(requests, size, request -> Cursor.of(request.getCreated(), request.getId()));
     }
 }
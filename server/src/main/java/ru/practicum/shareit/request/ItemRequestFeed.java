@@ -0,0 +1,412 @@
+package ru.practicum.shareit.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Лента чужих запросов для /requests/all: не больше max-size новейших запросов по убыванию created, затем id,
+ * с уже собранными ответившими вещами. Свои запросы смотрящего пропускаются при чтении по индексу позиций
+ * владельца, без перебора ленты от начала.
+ * Если все запросы в ленту не помещаются, а страница выходит за её конец, ответ пустой и читать нужно из базы.
+ * Изменения с этого узла попадают в ленту сразу. Изменения с других узлов дочитываются раз в refresh-interval:
+ * новые запросы, изменённые ответившие вещи и удалённые пользователи, начиная на overlap раньше прошлого прохода.
+ * Остальное, например переименование владельца на другом узле, приходит с полным перечитыванием
+ * раз в full-reload-interval.
+ */
+@Slf4j
+@Component
+public class ItemRequestFeed {
+    private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.created)
+            .thenComparingLong(entry -> entry.id)
+            .reversed();
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int[] NONE = new int[0];
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemMapper itemMapper;
+    private final int maxSize;
+    private final Duration refreshInterval;
+    private final Duration overlap;
+    private final Duration fullReloadInterval;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Feed feed = new Feed();
+    private List<Consumer<Feed>> pending;
+    private LocalDateTime watermark;
+    private ScheduledExecutorService executor;
+
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                           UserRepository userRepository, ItemMapper itemMapper,
+                           @Value("${shareit.request.feed.max-size:10000}") int maxSize,
+                           @Value("${shareit.request.feed.refresh-interval:PT30S}") Duration refreshInterval,
+                           @Value("${shareit.request.feed.refresh-overlap:PT1M}") Duration overlap,
+                           @Value("${shareit.request.feed.full-reload-interval:PT10M}") Duration fullReloadInterval) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.itemMapper = itemMapper;
+        this.maxSize = maxSize;
+        this.refreshInterval = refreshInterval;
+        this.overlap = overlap;
+        this.fullReloadInterval = fullReloadInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        load();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::loadQuietly, fullReloadInterval.toMillis(), fullReloadInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Перечитывает ленту из базы без блокировки читателей. Изменения, пришедшие с этого узла во время чтения,
+     * повторяются на новой ленте перед заменой.
+     */
+    public synchronized void load() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Feed loaded = read();
+            lock.writeLock().lock();
+            try {
+                pending.forEach(change -> change.accept(loaded));
+                feed = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            watermark = startedAt;
+            log.info("Построена лента запросов, запросов - {}, полная - {}", loaded.entries.size(), loaded.complete);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Дочитывает изменения после прошлого прохода и возвращает число прочитанных записей.
+     * Повторно прочитанные в окне перекрытия записи применяются без последствий: запрос не добавляется дважды,
+     * вещь заменяется, а запросы и вещи удалённого пользователя уже убраны.
+     */
+    public synchronized int refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime from = watermark.minus(overlap);
+        List<ItemRequest> requests = itemRequestRepository.findCreatedSince(from, PaginationUtil.getLimit(maxSize));
+        List<Item> items = itemRepository.findAnswersUpdatedSince(from);
+        List<Long> deletedUserIds = userRepository.findIdsDeletedSince(from);
+        change(current -> {
+            requests.forEach(current::add);
+            items.forEach(current::index);
+            deletedUserIds.forEach(current::removeOwner);
+        });
+        watermark = startedAt;
+        return requests.size() + items.size() + deletedUserIds.size();
+    }
+
+    public void add(ItemRequest request) {
+        change(current -> current.add(request));
+    }
+
+    /**
+     * Добавить или обновить вещь, ответившую на запрос из ленты.
+     */
+    public void index(Item item) {
+        change(current -> current.index(item));
+    }
+
+    /**
+     * Убирает запросы и вещи удалённого пользователя.
+     */
+    public void removeOwner(long userId) {
+        change(current -> current.removeOwner(userId));
+    }
+
+    /**
+     * Обновляет имя и email владельца в вещах ленты.
+     */
+    public void updateOwner(User user) {
+        change(current -> current.updateOwner(user));
+    }
+
+    /**
+     * Страница чужих запросов со смещением offset. Пусто, если страница выходит за конец неполной ленты.
+     */
+    public Optional<List<ItemRequestDto>> page(long userId, long offset, int size) {
+        lock.readLock().lock();
+        try {
+            return feed.collect(feed.foreignAt(userId, offset), userId, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Страница чужих запросов, созданных раньше курсора.
+     */
+    public Optional<List<ItemRequestDto>> page(long userId, Cursor cursor, int size) {
+        lock.readLock().lock();
+        try {
+            return feed.collect(feed.after(new Entry(cursor.getId(), cursor.getTime(), 0)), userId, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return feed.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка обновления ленты запросов", e);
+        }
+    }
+
+    private void loadQuietly() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка перечитывания ленты запросов", e);
+        }
+    }
+
+    private void change(Consumer<Feed> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(feed);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Feed read() {
+        List<ItemRequest> requests = itemRequestRepository.findLatest(PaginationUtil.getLimit(maxSize + 1));
+        Feed loaded = new Feed();
+        for (ItemRequest request : requests.subList(0, Math.min(maxSize, requests.size()))) {
+            loaded.entries.add(loaded.entry(request));
+        }
+        loaded.entries.sort(ORDER);
+        loaded.complete = requests.size() <= maxSize;
+        loaded.reindex();
+        List<ItemRequest> loadedRequests = new ArrayList<>(loaded.entries.size());
+        loaded.entries.forEach(entry -> loadedRequests.add(ItemRequest.builder().id(entry.id).build()));
+        for (int i = 0; i < loadedRequests.size(); i += LOAD_BATCH_SIZE) {
+            itemRepository.findByRequestInOrderByIdAsc(
+                    loadedRequests.subList(i, Math.min(loadedRequests.size(), i + LOAD_BATCH_SIZE))).forEach(loaded::index);
+        }
+        return loaded;
+    }
+
+    private static boolean isOwner(ItemDto itemDto, long userId) {
+        return itemDto.getOwner() != null && itemDto.getOwner().getId() == userId;
+    }
+
+    /**
+     * Запросы в порядке ленты и позиции запросов каждого владельца в ней. Позиции пересчитываются при добавлении
+     * и удалении запросов: это редкие операции, а чтение страниц их только использует.
+     */
+    private class Feed {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<Long, Entry> byId = new HashMap<>();
+        private Map<Long, int[]> positions = Map.of();
+        private boolean complete = true;
+
+        Entry entry(ItemRequest request) {
+            Entry entry = new Entry(request.getId(), request.getCreated(), request.getOwner().getId());
+            entry.description = request.getDescription();
+            byId.put(entry.id, entry);
+            return entry;
+        }
+
+        void add(ItemRequest request) {
+            if (byId.containsKey(request.getId())) {
+                return;
+            }
+            Entry entry = entry(request);
+            entries.add(after(entry), entry);
+            while (entries.size() > maxSize) {
+                byId.remove(entries.remove(entries.size() - 1).id);
+                complete = false;
+            }
+            reindex();
+        }
+
+        void index(Item item) {
+            if (item.getRequest() == null) {
+                return;
+            }
+            Entry entry = byId.get(item.getRequest().getId());
+            if (entry == null) {
+                return;
+            }
+            entry.items.removeIf(itemDto -> itemDto.getId().equals(item.getId()));
+            entry.items.add(itemMapper.toItemDto(item));
+            entry.items.sort(Comparator.comparing(ItemDto::getId));
+        }
+
+        void removeOwner(long userId) {
+            if (entries.removeIf(entry -> entry.ownerId == userId)) {
+                byId.values().removeIf(entry -> entry.ownerId == userId);
+                reindex();
+            }
+            entries.forEach(entry -> entry.items.removeIf(itemDto -> isOwner(itemDto, userId)));
+        }
+
+        void updateOwner(User user) {
+            for (Entry entry : entries) {
+                for (ItemDto itemDto : entry.items) {
+                    if (isOwner(itemDto, user.getId())) {
+                        itemDto.setOwner(User.builder().id(user.getId()).name(user.getName()).email(user.getEmail()).build());
+                    }
+                }
+            }
+        }
+
+        void reindex() {
+            Map<Long, List<Integer>> byOwner = new HashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                byOwner.computeIfAbsent(entries.get(i).ownerId, ownerId -> new ArrayList<>()).add(i);
+            }
+            Map<Long, int[]> reindexed = new HashMap<>();
+            byOwner.forEach((ownerId, list) -> reindexed.put(ownerId, list.stream().mapToInt(Integer::intValue).toArray()));
+            positions = reindexed;
+        }
+
+        /**
+         * Позиция первого запроса строго после probe в порядке ленты.
+         */
+        int after(Entry probe) {
+            int found = Collections.binarySearch(entries, probe, ORDER);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+
+        /**
+         * Позиция offset-го по счёту чужого для userId запроса. Число чужих запросов до позиции i равно
+         * i минус число своих до i, поэтому позиция ищется двоичным поиском по индексу владельца.
+         */
+        int foreignAt(long userId, long offset) {
+            int[] own = positions.getOrDefault(userId, NONE);
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (foreignBefore(own, mid + 1) > offset) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        Optional<List<ItemRequestDto>> collect(int from, long userId, int size) {
+            int[] own = positions.getOrDefault(userId, NONE);
+            int next = ownBefore(own, from);
+            List<ItemRequestDto> page = new ArrayList<>(size);
+            for (int i = from; i < entries.size(); i++) {
+                if (next < own.length && own[next] == i) {
+                    next++;
+                    continue;
+                }
+                page.add(entries.get(i).toDto());
+                if (page.size() == size) {
+                    return Optional.of(page);
+                }
+            }
+            return complete ? Optional.of(page) : Optional.empty();
+        }
+
+        private long foreignBefore(int[] own, int position) {
+            return position - ownBefore(own, position);
+        }
+
+        private int ownBefore(int[] own, int position) {
+            int found = Arrays.binarySearch(own, position);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    private static class Entry {
+        private final long id;
+        private final LocalDateTime created;
+        private final long ownerId;
+        private final List<ItemDto> items = new ArrayList<>();
+        private String description;
+
+        Entry(long id, LocalDateTime created, long ownerId) {
+            this.id = id;
+            this.created = created;
+            this.ownerId = ownerId;
+        }
+
+        ItemRequestDto toDto() {
+            return ItemRequestDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(new ArrayList<>(items))
+                    .build();
+        }
+    }
+}
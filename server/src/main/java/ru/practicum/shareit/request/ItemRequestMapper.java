@@ -1,8 +1,11 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.User;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class ItemRequestMapper {
@@ -20,4 +23,34 @@ public class ItemRequestMapper {
                 .items(new ArrayList<>())
                 .build();
     }
+
+    /**
+     * Строки findWithItemsById в запрос с вещами. Список строк не пуст.
+     */
+    public ItemRequestDto toItemRequestDto(List<ItemRequestView> rows) {
+        ItemRequestView request = rows.get(0);
+        List<ItemDto> items = new ArrayList<>();
+        for (ItemRequestView row : rows) {
+            if (row.getItemId() != null) {
+                items.add(ItemDto.builder()
+                        .id(row.getItemId())
+                        .owner(User.builder().id(row.getOwnerId()).name(row.getOwnerName()).email(row.getOwnerEmail()).build())
+                        .name(row.getItemName())
+                        .description(row.getItemDescription())
+                        .available(row.getAvailable())
+                        .comments(new ArrayList<>())
+                        .commentsCount(0L)
+                        .requestId(request.getRequestId())
+                        .latitude(row.getLatitude())
+                        .longitude(row.getLongitude())
+                        .build());
+            }
+        }
+        return ItemRequestDto.builder()
+                .id(request.getRequestId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items)
+                .build();
+    }
 }
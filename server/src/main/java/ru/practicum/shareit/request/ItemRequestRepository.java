@@ -3,9 +3,67 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     Page<ItemRequest> findByOwnerId(Long userId, Pageable pageable);
 
     Page<ItemRequest> findByOwnerIdNot(Long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.owner.id = ?1 and (r.created > ?2 or (r.created = ?2 and r.id > ?3)) " +
+            "order by r.created asc, r.id asc")
+    List<ItemRequest> findByOwnerIdAfterCursor(Long userId, LocalDateTime cursorCreated, Long cursorId, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.owner.id <> ?1 and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findByOwnerIdNotBeforeCursor(Long userId, LocalDateTime cursorCreated, Long cursorId, Pageable pageable);
+
+    /**
+     * Новейшие запросы по убыванию created, затем id. Возвращает список, поэтому запроса подсчёта нет.
+     */
+    @Query("select r from ItemRequest r order by r.created desc, r.id desc")
+    List<ItemRequest> findLatest(Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.created >= ?1 order by r.created desc, r.id desc")
+    List<ItemRequest> findCreatedSince(LocalDateTime from, Pageable pageable);
+
+    /**
+     * Запрос и ответившие на него вещи с владельцами одним запросом, по строке на вещь в порядке id.
+     */
+    @Query(value = "select r.id as \"requestId\", r.description as \"description\", r.created_date as \"created\", " +
+            "i.id as \"itemId\", i.name as \"itemName\", i.description as \"itemDescription\", " +
+            "i.is_available as \"available\", i.latitude as \"latitude\", i.longitude as \"longitude\", " +
+            "u.id as \"ownerId\", u.name as \"ownerName\", u.email as \"ownerEmail\" " +
+            "from item_requests r " +
+            "left join items i on i.request_id = r.id " +
+            "and i.deleted = false " +
+            "left join users u on u.id = i.owner_id " +
+            "where r.id = ?1 " +
+            "and r.deleted = false " +
+            "order by i.id", nativeQuery = true)
+    List<ItemRequestView> findWithItemsById(Long requestId);
+
+    @Query(value = "select id from item_requests where owner_id = ?1 limit ?2", nativeQuery = true)
+    List<Long> findIdsToPurge(Long userId, int limit);
+
+    @Query(value = "select count(*) from item_requests where owner_id = ?1", nativeQuery = true)
+    long countToPurge(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update item_requests set deleted = true where owner_id = ?1", countQuery = "select 0", nativeQuery = true)
+    int markDeletedByOwnerId(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from item_requests r where r.id in (?1)", countQuery = "select 0", nativeQuery = true)
+    int purgeByIdIn(Collection<Long> ids);
 }
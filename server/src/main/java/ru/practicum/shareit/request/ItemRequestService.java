@@ -1,5 +1,7 @@
 package ru.practicum.shareit.request;
 
+import ru.practicum.shareit.utils.Cursor;
+
 import java.util.List;
 
 public interface ItemRequestService {
@@ -11,5 +13,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAll(long userId, int from, int size);
 
+    List<ItemRequestDto> getAllByUser(long userId, Cursor cursor, int size);
+
+    List<ItemRequestDto> getAll(long userId, Cursor cursor, int size);
+
     ItemRequest reply(long requestId);
 }
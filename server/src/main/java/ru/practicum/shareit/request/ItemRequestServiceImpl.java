@@ -7,12 +7,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,57 +32,93 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRepository itemRepository;
     private final ItemRequestMapper itemRequestMapper;
     private final ItemMapper itemMapper;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Override
     public ItemRequestDto add(long userId, RequestDto requestDto) {
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(requestDto);
         itemRequest.setOwner(userService.getUser(userId));
-        itemRequest.setCreated(LocalDateTime.now());
-        return itemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        itemRequestFeed.add(saved);
+        return itemRequestMapper.toItemRequestDto(saved);
     }
 
     @Override
     public ItemRequestDto getById(long userId, long requestId) {
-        userService.getById(userId);
-        ItemRequestDto requestDto = itemRequestMapper.toItemRequestDto(reply(requestId));
-        requestDto.setItems(itemRepository.findByRequestInOrderByIdAsc(List.of(reply(requestId)))
-                .stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList()));
-        return requestDto;
+        userService.checkExists(userId);
+        validateId(requestId);
+        List<ItemRequestView> rows = itemRequestRepository.findWithItemsById(requestId);
+        if (rows.isEmpty()) {
+            throw notFound(requestId);
+        }
+        return itemRequestMapper.toItemRequestDto(rows);
     }
 
     @Override
     public List<ItemRequestDto> getAllByUser(long userId, int from, int size) {
-        userService.getById(userId);
+        userService.checkExists(userId);
         int pageNumber = (int) Math.ceil((double) from / size);
         Page<ItemRequest> requests = itemRequestRepository.findByOwnerId(userId, PageRequest.of(pageNumber, size, Sort.by("created")));
-        return setItemsForRequests(requests);
+        return setItemsForRequests(requests.toList());
     }
 
     @Override
     public List<ItemRequestDto> getAll(long userId, int from, int size) {
-        userService.getById(userId);
+        userService.checkExists(userId);
         int pageNumber = (int) Math.ceil((double) from / size);
-        Page<ItemRequest> requests = itemRequestRepository.findByOwnerIdNot(userId, PageRequest.of(pageNumber, size, Sort.by("created").descending()));
+        PageRequest pageRequest = PageRequest.of(pageNumber, size, Sort.by("created").descending());
+        return itemRequestFeed.page(userId, pageRequest.getOffset(), size)
+                .orElseGet(() -> setItemsForRequests(itemRequestRepository.findByOwnerIdNot(userId, pageRequest).toList()));
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllByUser(long userId, Cursor cursor, int size) {
+        userService.checkExists(userId);
+        List<ItemRequest> requests = itemRequestRepository.findByOwnerIdAfterCursor(userId, getCursorCreated(cursor),
+                cursor.getId(), PaginationUtil.getLimit(size));
         return setItemsForRequests(requests);
     }
 
+    @Override
+    public List<ItemRequestDto> getAll(long userId, Cursor cursor, int size) {
+        userService.checkExists(userId);
+        LocalDateTime created = getCursorCreated(cursor);
+        return itemRequestFeed.page(userId, cursor, size)
+                .orElseGet(() -> setItemsForRequests(itemRequestRepository.findByOwnerIdNotBeforeCursor(userId, created,
+                        cursor.getId(), PaginationUtil.getLimit(size))));
+    }
+
     @Override
     public ItemRequest reply(long requestId) {
+        validateId(requestId);
+        Optional<ItemRequest> optional = itemRequestRepository.findById(requestId);
+        return optional.orElseThrow(() -> notFound(requestId));
+    }
+
+    private void validateId(long requestId) {
         if (requestId < 0) {
             throw new IncorrectParameterException("id не должно быть меньше 0.");
         }
-        Optional<ItemRequest> optional = itemRequestRepository.findById(requestId);
-        return optional.orElseThrow(() -> new ParameterNotFoundException(String.format("Запроса с номером %d - не найдено. Возможно не был ещё создан этот запрос.", requestId)));
     }
 
-    private List<ItemRequestDto> setItemsForRequests(Page<ItemRequest> requests) {
+    private ParameterNotFoundException notFound(long requestId) {
+        return new ParameterNotFoundException(String.format("Запроса с номером %d - не найдено. Возможно не был ещё создан этот запрос.", requestId));
+    }
+
+    private LocalDateTime getCursorCreated(Cursor cursor) {
+        if (cursor.getTime() == null) {
+            throw new ValidationException("cursor не относится к списку запросов.");
+        }
+        return cursor.getTime();
+    }
+
+    private List<ItemRequestDto> setItemsForRequests(List<ItemRequest> requests) {
         List<ItemRequestDto> requestsDto = requests.stream()
                 .map(itemRequestMapper::toItemRequestDto)
                 .collect(Collectors.toList());
 
-        Map<Long, List<ItemDto>> itemsMap = itemRepository.findByRequestInOrderByIdAsc(requests.toList())
+        Map<Long, List<ItemDto>> itemsMap = itemRepository.findByRequestInOrderByIdAsc(requests)
                 .stream()
                 .filter(item -> item.getRequest() != null)
                 .collect(groupingBy(item -> item.getRequest().getId(), Collectors.mapping(itemMapper::toItemDto, Collectors.toList())));
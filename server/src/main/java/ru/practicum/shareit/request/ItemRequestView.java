@@ -0,0 +1,32 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка запроса с одной из ответивших вещей и её владельцем. У запроса без ответов поля вещи пустые.
+ */
+public interface ItemRequestView {
+    Long getRequestId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getAvailable();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    Long getOwnerId();
+
+    String getOwnerName();
+
+    String getOwnerEmail();
+}
@@ -4,14 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 
 /**
  * TODO Sprint add-controllers.
+ * Пользователь с заполненным deleted_at скрыт из всех выборок, пока UserPurgeScheduler не удалит его данные.
  */
 @Entity
 @Table(name = "users")
+@Where(clause = "deleted_at is null")
 @Data
 @Builder
 @AllArgsConstructor
@@ -1,8 +1,17 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -13,7 +22,11 @@ import java.util.List;
 @RequestMapping(path = "/users")
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public UserDto add(@RequestBody UserDto userDto) {
@@ -31,12 +44,45 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAll() {
-        return userService.getAll();
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        if (size == null && cursor == null) {
+            return ResponseEntity.ok(userService.getAll());
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        List<UserDto> users = userService.getAll(cursor == null ? null : Cursor.decode(cursor), pageSize);
+        return PaginationUtil.withNextCursor(users, pageSize, user -> Cursor.of(user.getId()));
+    }
+
+    /**
+     * Все пользователи в формате NDJSON, по строке на пользователя. Строки пишутся в ответ по мере чтения из базы.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> userService.exportAll(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @DeleteMapping("/{userId}")
     public void deleteUser(@PathVariable("userId") long id) {
         userService.delete(id);
     }
+
+    @DeleteMapping(value = "/{userId}", params = "async=true")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public UserDeletionDto deleteUserAsync(@PathVariable("userId") long id) {
+        return userService.deleteAsync(id);
+    }
+
+    @GetMapping("/{userId}/deletion")
+    public UserDeletionDto getDeletion(@PathVariable("userId") long id) {
+        return userService.getDeletion(id);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сколько строк удалённого пользователя ещё ждут очистки.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionDto {
+    private Long userId;
+    private long comments;
+    private long bookings;
+    private long items;
+    private long requests;
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * Ограниченный кэш id существующих пользователей для проверок, которым сама сущность не нужна.
+ * Запоминаются только найденные id: удаление сбрасывает id явно, ttl страхует от удалений мимо сервиса.
+ * Метрики публикуются с тегом cache=userExists.
+ */
+@Component
+public class UserExistenceCache {
+    private final Cache<Long, Boolean> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    public UserExistenceCache(@Value("${shareit.user.exists-cache.max-size:100000}") long maxSize,
+                              @Value("${shareit.user.exists-cache.ttl:PT1H}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userExists");
+    }
+
+    /**
+     * Есть ли пользователь. При промахе спрашивает loader, id, удалённый во время проверки, не запоминается.
+     */
+    public boolean exists(long id, LongPredicate loader) {
+        if (cache.getIfPresent(id) != null) {
+            return true;
+        }
+        long loadedAt = version.get();
+        boolean exists = loader.test(id);
+        if (exists) {
+            cache.put(id, Boolean.TRUE);
+            if (version.get() != loadedAt) {
+                cache.invalidate(id);
+            }
+        }
+        return exists;
+    }
+
+    public void add(long id) {
+        cache.put(id, Boolean.TRUE);
+    }
+
+    public void invalidate(long id) {
+        version.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Пользователи, уже загруженные в рамках текущего HTTP-запроса: повторный getById в том же запросе
+ * не идёт в базу. Вне запроса (планировщик, тесты сервисов) ничего не хранит.
+ */
+@Component
+public class UserIdentityMap {
+    private static final String ATTRIBUTE = UserIdentityMap.class.getName();
+
+    public User get(long id) {
+        Map<Long, User> users = users(false);
+        return users == null ? null : users.get(id);
+    }
+
+    public void put(User user) {
+        Map<Long, User> users = users(true);
+        if (users != null) {
+            users.put(user.getId(), user);
+        }
+    }
+
+    public void remove(long id) {
+        Map<Long, User> users = users(false);
+        if (users != null) {
+            users.remove(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, User> users(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, User> users = (Map<Long, User>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (users == null && create) {
+            users = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, users, RequestAttributes.SCOPE_REQUEST);
+        }
+        return users;
+    }
+}
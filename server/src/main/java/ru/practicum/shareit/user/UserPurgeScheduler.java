@@ -0,0 +1,218 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingPurgeView;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.geo.ItemGeoIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.utils.SchedulerLockRepository;
+import ru.practicum.shareit.utils.TransactionUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Удаляет данные пользователей, помеченных удалёнными, порциями по batch-size строк: комментарии,
+ * бронирования, вещи, запросы и в конце саму строку users. Каждая порция - отдельный короткий оператор,
+ * поэтому блокировки не копятся, а запросы к остальным пользователям не ждут каскада.
+ * Работает только на узле, который держит аренду в scheduler_lock. Аренда продлевается перед каждой порцией
+ * на lease, поэтому длинный прогон её не теряет, а lease должен с запасом перекрывать одну порцию.
+ * Если продлить аренду не удалось, прогон останавливается: её уже забрал другой узел.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPurgeScheduler {
+    static final String LOCK_NAME = "user-purge";
+
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemGeoIndex itemGeoIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final String node = UUID.randomUUID().toString();
+
+    @Value("${shareit.user.purge.enabled:true}")
+    private boolean enabled;
+    @Value("${shareit.user.purge.delay:PT5S}")
+    private Duration delay;
+    @Value("${shareit.user.purge.batch-size:500}")
+    private int batchSize;
+    @Value("${shareit.user.purge.batches-per-run:20}")
+    private int batchesPerRun;
+    @Value("${shareit.user.purge.lease:PT1M}")
+    private Duration lease;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, LOCK_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::run, 0, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Вызывается сразу после пометки пользователя удалённым в той же транзакции: ставит флаг deleted на его вещи,
+     * запросы, комментарии и бронирования и отвязывает чужие вещи от его запросов. Фильтры @Where читают
+     * только флаг своей строки, без подзапроса к users. Вещи убираются из индексов в памяти и фоновое удаление
+     * строк запускается только после commit: при откате индексы и база не расходятся.
+     */
+    public void onDeleted(long userId) {
+        itemRepository.markDeletedByOwnerId(userId);
+        itemRequestRepository.markDeletedByOwnerId(userId);
+        commentRepository.markDeletedByAuthorId(userId);
+        bookingRepository.markDeletedByUserId(userId);
+        itemRepository.detachFromRequestsOf(userId);
+        List<Long> itemIds = itemRepository.findIdsToPurge(userId, Integer.MAX_VALUE);
+        TransactionUtil.afterCommit(() -> {
+            evictItems(itemIds);
+            if (executor != null) {
+                executor.execute(this::run);
+            }
+        });
+    }
+
+    /**
+     * Убирает вещи пользователя из поисковых индексов и сетки координат и сбрасывает кэш поиска.
+     * Общая часть асинхронного и синхронного удаления пользователя.
+     */
+    public void evictItems(long userId) {
+        evictItems(itemRepository.findIdsToPurge(userId, Integer.MAX_VALUE));
+    }
+
+    private void evictItems(List<Long> itemIds) {
+        for (Long itemId : itemIds) {
+            itemSearchIndex.remove(itemId);
+            itemSuggestIndex.remove(itemId);
+            itemGeoIndex.remove(itemId);
+            itemSearchCache.invalidate(Item.builder().id(itemId).available(false).build());
+        }
+    }
+
+    public UserDeletionDto getProgress(long userId) {
+        return UserDeletionDto.builder()
+                .userId(userId)
+                .comments(commentRepository.countToPurge(userId))
+                .bookings(bookingRepository.countToPurge(userId))
+                .items(itemRepository.countToPurge(userId))
+                .requests(itemRequestRepository.countToPurge(userId))
+                .build();
+    }
+
+    /**
+     * Выполнить не больше maxBatches порций. Возвращает число удалённых строк.
+     */
+    public int purge(int maxBatches) {
+        return purge(maxBatches, () -> true);
+    }
+
+    /**
+     * То же, но перед каждой порцией проверяет renewLease и останавливается, если аренда потеряна.
+     */
+    int purge(int maxBatches, BooleanSupplier renewLease) {
+        int deleted = 0;
+        int batches = 0;
+        for (Long userId : userRepository.findDeletedIds(maxBatches)) {
+            while (batches < maxBatches) {
+                if (!renewLease.getAsBoolean()) {
+                    log.info("Аренда {} потеряна, очистка остановлена", LOCK_NAME);
+                    return deleted;
+                }
+                int rows = purgeBatch(userId);
+                batches++;
+                deleted += rows;
+                if (rows == 0) {
+                    log.info("Данные пользователя {} удалены", userId);
+                    break;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Одна порция: первая непустая таблица по порядку зависимостей. 0 - у пользователя ничего не осталось.
+     */
+    private int purgeBatch(long userId) {
+        List<Long> comments = commentRepository.findIdsToPurge(userId, batchSize);
+        if (!comments.isEmpty()) {
+            return report(userId, "комментариев", commentRepository.purgeByIdIn(comments));
+        }
+        List<BookingPurgeView> bookings = bookingRepository.findToPurge(userId, batchSize);
+        if (!bookings.isEmpty()) {
+            int rows = bookingRepository.purgeByIdIn(bookings.stream()
+                    .map(BookingPurgeView::getId)
+                    .collect(Collectors.toList()));
+            bookings.forEach(bookingIntervalIndex::releasePurged);
+            return report(userId, "бронирований", rows);
+        }
+        List<Long> items = itemRepository.findIdsToPurge(userId, batchSize);
+        if (!items.isEmpty()) {
+            return report(userId, "вещей", itemRepository.purgeByIdIn(items));
+        }
+        List<Long> requests = itemRequestRepository.findIdsToPurge(userId, batchSize);
+        if (!requests.isEmpty()) {
+            return report(userId, "запросов", itemRequestRepository.purgeByIdIn(requests));
+        }
+        userRepository.purgeById(userId);
+        return 0;
+    }
+
+    private int report(long userId, String what, int rows) {
+        log.info("Пользователь {}: удалено {} {}", userId, rows, what);
+        return rows;
+    }
+
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        return schedulerLockRepository.tryAcquire(LOCK_NAME, node, now, now.plus(lease)) > 0;
+    }
+
+    private void run() {
+        try {
+            if (acquireLease()) {
+                purge(batchesPerRun, this::acquireLease);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ошибка очистки данных удалённых пользователей", e);
+        }
+    }
+}
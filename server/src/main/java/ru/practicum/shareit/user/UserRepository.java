@@ -1,8 +1,59 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Все пользователи однонаправленным курсором по EXPORT_FETCH_SIZE строк. Читаются сразу UserDto,
+     * поэтому контекст персистентности не растёт. Вызывать внутри транзакции и закрывать поток.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select new ru.practicum.shareit.user.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAllDtos();
+
+    /**
+     * Помечает пользователя удалённым и освобождает его email. Возвращает 0, если пользователя нет или он уже удалён.
+     * У нативных update и delete countQuery задан явно: Spring Data 2.7 падает, выводя из них запрос подсчёта.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update users set deleted_at = ?2, email = concat('deleted-', id) " +
+            "where id = ?1 and deleted_at is null", countQuery = "select 0", nativeQuery = true)
+    int softDelete(Long id, LocalDateTime time);
+
+    @Query(value = "select id from users where deleted_at is not null order by deleted_at, id limit ?1", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    @Query(value = "select id from users where deleted_at >= ?1 order by id", nativeQuery = true)
+    List<Long> findIdsDeletedSince(LocalDateTime from);
+
+    @Query(value = "select count(*) from users where id = ?1 and deleted_at is not null", nativeQuery = true)
+    long countDeletedById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from users u where u.id = ?1 and u.deleted_at is not null", countQuery = "select 0", nativeQuery = true)
+    int purgeById(Long id);
 }
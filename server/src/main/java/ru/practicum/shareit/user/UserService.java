@@ -1,6 +1,9 @@
 package ru.practicum.shareit.user;
 
+import ru.practicum.shareit.utils.Cursor;
+
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto add(UserDto userDto);
@@ -9,9 +12,28 @@ public interface UserService {
 
     void delete(long id);
 
+    /**
+     * Сразу скрывает пользователя из всех выборок, его данные удаляются в фоне UserPurgeScheduler.
+     */
+    UserDeletionDto deleteAsync(long id);
+
+    UserDeletionDto getDeletion(long id);
+
     User getById(long id);
 
+    /**
+     * Проверка, что пользователь существует, без загрузки сущности.
+     */
+    void checkExists(long id);
+
     List<UserDto> getAll();
 
+    List<UserDto> getAll(Cursor cursor, int size);
+
+    /**
+     * Передаёт всех пользователей в consumer по мере чтения, не собирая их в памяти.
+     */
+    void exportAll(Consumer<UserDto> consumer);
+
     User getUser(long id);
 }
@@ -5,10 +5,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemCardCache;
+import ru.practicum.shareit.request.ItemRequestFeed;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
+import ru.practicum.shareit.utils.TransactionUtil;
 
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -16,10 +28,16 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ItemCardCache itemCardCache;
+    private final UserExistenceCache userExistenceCache;
+    private final UserIdentityMap userIdentityMap;
+    private final UserPurgeScheduler userPurgeScheduler;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Override
     public UserDto add(UserDto userDto) {
         User user = userRepository.save(userMapper.toUser(userDto));
+        userExistenceCache.add(user.getId());
         log.info("Создан пользователь {}", user);
         return userMapper.toUserDto(user);
     }
@@ -30,25 +48,58 @@ public class UserServiceImpl implements UserService {
         updateName(user, userDto);
         updateEmail(user, userDto);
         userRepository.save(user);
+        itemCardCache.invalidateAll();
+        itemRequestFeed.updateOwner(user);
         log.info("Пользователь обновлен {}", user);
         return userMapper.toUserDto(user);
     }
 
     @Override
     public void delete(long id) {
-        getById(id);
+        checkExists(id);
+        userPurgeScheduler.evictItems(id);
         userRepository.deleteById(id);
+        userExistenceCache.invalidate(id);
+        userIdentityMap.remove(id);
+        itemCardCache.invalidateAll();
+        itemRequestFeed.removeOwner(id);
         log.info("Пользователь под ID - {} удален", id);
     }
 
+    @Override
+    @Transactional
+    public UserDeletionDto deleteAsync(long id) {
+        if (userRepository.softDelete(id, LocalDateTime.now()) == 0) {
+            throw new ParameterNotFoundException("Пользователь не найден");
+        }
+        TransactionUtil.afterCommit(() -> {
+            userExistenceCache.invalidate(id);
+            userIdentityMap.remove(id);
+            itemCardCache.invalidateAll();
+            itemRequestFeed.removeOwner(id);
+        });
+        userPurgeScheduler.onDeleted(id);
+        log.info("Пользователь под ID - {} помечен удалённым", id);
+        return userPurgeScheduler.getProgress(id);
+    }
+
+    @Override
+    public UserDeletionDto getDeletion(long id) {
+        if (userRepository.countDeletedById(id) == 0) {
+            throw new ParameterNotFoundException(String.format("Удаление пользователя с id %d не найдено или уже завершено.", id));
+        }
+        return userPurgeScheduler.getProgress(id);
+    }
+
     @Override
     public User getById(long id) {
-        Optional<User> user = userRepository.findById(id);
-        if (user.isEmpty()) {
+        return find(id).orElseThrow(() -> new ParameterNotFoundException("Пользователь не найден"));
+    }
+
+    @Override
+    public void checkExists(long id) {
+        if (userIdentityMap.get(id) == null && !userExistenceCache.exists(id, userRepository::existsById)) {
             throw new ParameterNotFoundException("Пользователь не найден");
-        } else {
-            log.info("Запрошен пользователь {} ", user);
-            return user.get();
         }
     }
 
@@ -59,17 +110,54 @@ public class UserServiceImpl implements UserService {
             UserDto userDtoNew = userMapper.toUserDto(users);
             userDto.add(userDtoNew);
         }
-        log.info("Запрошен список пользователей, количество - {}", userRepository.findAll().size());
+        log.info("Запрошен список пользователей, количество - {}", userDto.size());
         return userDto;
     }
 
+    @Override
+    public List<UserDto> getAll(Cursor cursor, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше 0.");
+        }
+        return userRepository.findByIdGreaterThanOrderByIdAsc(cursor == null ? 0L : cursor.getId(), PaginationUtil.getLimit(size))
+                .stream()
+                .map(userMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void exportAll(Consumer<UserDto> consumer) {
+        long count = 0;
+        try (Stream<UserDto> users = userRepository.streamAllDtos()) {
+            Iterator<UserDto> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        log.info("Выгружен список пользователей, количество - {}", count);
+    }
+
     @Override
     public User getUser(long id) {
         if (id < 0) {
             throw new IncorrectParameterException("id не должно быть меньше 0.");
         }
-        Optional<User> optional = userRepository.findById(id);
-        return optional.orElseThrow(() -> new ParameterNotFoundException(String.format("Пользователь с id %d - не существует.", id)));
+        return find(id).orElseThrow(() -> new ParameterNotFoundException(String.format("Пользователь с id %d - не существует.", id)));
+    }
+
+    private Optional<User> find(long id) {
+        User cached = userIdentityMap.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(found -> {
+            userIdentityMap.put(found);
+            userExistenceCache.add(id);
+        });
+        return user;
     }
 
     private void updateName(User user, UserDto userDto) {
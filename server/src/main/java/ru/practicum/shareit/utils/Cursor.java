@@ -0,0 +1,62 @@
+package ru.practicum.shareit.utils;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция для keyset-пагинации: ключ сортировки (время или релевантность) и id последней выданной записи.
+ * Клиенту передаётся в виде непрозрачной строки.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class Cursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime time;
+    private final Double score;
+    private final long id;
+
+    public static Cursor of(LocalDateTime time, long id) {
+        return new Cursor(time, null, id);
+    }
+
+    public static Cursor of(double score, long id) {
+        return new Cursor(null, score, id);
+    }
+
+    public static Cursor of(long id) {
+        return new Cursor(null, null, id);
+    }
+
+    public String encode() {
+        String value = (time == null ? "" : time.toString()) + SEPARATOR + (score == null ? "" : score.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Понимает и прежний формат без релевантности: время|id.
+     */
+    public static Cursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 2 && parts.length != 3) {
+                throw new IllegalArgumentException(token);
+            }
+            String time = parts[0];
+            String score = parts.length == 3 ? parts[1] : "";
+            long id = Long.parseLong(parts[parts.length - 1]);
+            return new Cursor(time.isEmpty() ? null : LocalDateTime.parse(time), score.isEmpty() ? null : Double.valueOf(score), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный cursor: " + token);
+        }
+    }
+}
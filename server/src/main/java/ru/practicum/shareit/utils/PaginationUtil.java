@@ -2,10 +2,19 @@ package ru.practicum.shareit.utils;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
 
 public class PaginationUtil {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-    public static PageRequest getPageRequestDesc(int from, int size, String sortBy) {
+    /**
+     * Страница по убыванию всех полей sortBy. Последним полем стоит передавать id, чтобы порядок строк
+     * с одинаковым значением был тем же, что и у курсорных запросов.
+     */
+    public static PageRequest getPageRequestDesc(int from, int size, String... sortBy) {
         int pageNumber = (from + size - 1) / size;
         return PageRequest.of(pageNumber, size, Sort.by(sortBy).descending());
     }
@@ -14,4 +23,16 @@ public class PaginationUtil {
         int pageNumber = (from + size - 1) / size;
         return PageRequest.of(pageNumber, size, Sort.by(sortBy).ascending());
     }
+
+    public static PageRequest getLimit(int size) {
+        return PageRequest.of(0, size);
+    }
+
+    public static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, int size, Function<T, Cursor> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)).encode());
+        }
+        return response.body(page);
+    }
 }
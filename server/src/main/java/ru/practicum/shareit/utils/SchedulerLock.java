@@ -0,0 +1,27 @@
+package ru.practicum.shareit.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Аренда фоновой задачи: задачу выполняет только узел locked_by, пока не истекло locked_until.
+ */
+@Entity
+@Table(name = "scheduler_lock")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchedulerLock {
+    @Id
+    private String name;
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    @Column(name = "locked_by")
+    private String lockedBy;
+}
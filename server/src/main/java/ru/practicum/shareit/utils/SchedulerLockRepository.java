@@ -0,0 +1,19 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+    /**
+     * Захватывает или продлевает аренду. Возвращает 0, если аренда принадлежит другому узлу и ещё не истекла.
+     */
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLock l set l.lockedUntil = ?4, l.lockedBy = ?2 " +
+            "where l.name = ?1 and (l.lockedBy = ?2 or l.lockedUntil <= ?3)")
+    int tryAcquire(String name, String node, LocalDateTime now, LocalDateTime until);
+}
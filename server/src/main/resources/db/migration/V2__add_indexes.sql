@@ -0,0 +1,10 @@
+CREATE INDEX IF NOT EXISTS booking_booker_start_idx ON booking (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS booking_item_start_idx ON booking (item_id, start_date);
+CREATE INDEX IF NOT EXISTS booking_status_end_idx ON booking (status, end_date);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS item_requests_owner_created_idx ON item_requests (owner_id, created_date);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
@@ -0,0 +1,5 @@
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users (id) ON DELETE CASCADE;
+
+UPDATE booking SET owner_id = (SELECT items.owner_id FROM items WHERE items.id = booking.item_id);
+
+CREATE INDEX IF NOT EXISTS booking_owner_start_idx ON booking (owner_id, start_date);
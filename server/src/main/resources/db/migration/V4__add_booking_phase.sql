@@ -0,0 +1,20 @@
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS phase VARCHAR(16);
+
+UPDATE booking SET phase = CASE
+    WHEN end_date <= LOCALTIMESTAMP THEN 'PAST'
+    WHEN start_date <= LOCALTIMESTAMP THEN 'CURRENT'
+    ELSE 'FUTURE'
+END;
+
+CREATE INDEX IF NOT EXISTS booking_booker_phase_start_idx ON booking (booker_id, phase, start_date);
+CREATE INDEX IF NOT EXISTS booking_owner_phase_start_idx ON booking (owner_id, phase, start_date);
+CREATE INDEX IF NOT EXISTS booking_phase_start_idx ON booking (phase, start_date);
+CREATE INDEX IF NOT EXISTS booking_phase_end_idx ON booking (phase, end_date);
+
+CREATE TABLE IF NOT EXISTS scheduler_lock (
+  name          VARCHAR(64) PRIMARY KEY,
+  locked_until  TIMESTAMP NOT NULL,
+  locked_by     VARCHAR(255)
+);
+
+INSERT INTO scheduler_lock (name, locked_until) VALUES ('booking-lifecycle', TIMESTAMP '1970-01-01 00:00:00');
@@ -0,0 +1,6 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (deleted_at);
+CREATE INDEX IF NOT EXISTS comments_author_idx ON comments (author_id);
+
+INSERT INTO scheduler_lock (name, locked_until) VALUES ('user-purge', TIMESTAMP '1970-01-01 00:00:00');
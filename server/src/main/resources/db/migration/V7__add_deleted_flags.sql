@@ -0,0 +1,10 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE item_requests ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE items SET deleted = TRUE WHERE owner_id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL);
+UPDATE item_requests SET deleted = TRUE WHERE owner_id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL);
+UPDATE comments SET deleted = TRUE WHERE author_id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL);
+UPDATE booking SET deleted = TRUE WHERE booker_id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL)
+    OR owner_id IN (SELECT id FROM users WHERE deleted_at IS NOT NULL);
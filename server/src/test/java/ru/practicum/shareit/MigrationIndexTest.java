@@ -0,0 +1,47 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * H2 сам индексирует внешние ключи, поэтому в плане проверяется отсутствие полного сканирования,
+ * а состав индексов из миграций - по INFORMATION_SCHEMA. В PostgreSQL индексы внешних ключей не создаются.
+ */
+@DataJpaTest
+class MigrationIndexTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "{1}")
+    @DisplayName("Основные выборки используют индексы")
+    @CsvSource(delimiter = '|', value = {
+        "select * from booking where booker_id = 1 order by start_date desc | BOOKING_BOOKER_START_IDX | BOOKER_ID,START_DATE",
+        "select * from booking where item_id in (1, 2) and start_date < localtimestamp order by start_date desc | BOOKING_ITEM_START_IDX | ITEM_ID,START_DATE",
+        "select * from booking where owner_id = 1 and status = 'WAITING' order by start_date desc | BOOKING_OWNER_START_IDX | OWNER_ID,START_DATE",
+        "select * from booking where status in ('WAITING', 'APPROVED') and end_date > localtimestamp | BOOKING_STATUS_END_IDX | STATUS,END_DATE",
+        "select * from booking where booker_id = 1 and phase = 'PAST' order by start_date desc | BOOKING_BOOKER_PHASE_START_IDX | BOOKER_ID,PHASE,START_DATE",
+        "select * from booking where owner_id = 1 and phase = 'CURRENT' order by start_date desc | BOOKING_OWNER_PHASE_START_IDX | OWNER_ID,PHASE,START_DATE",
+        "select * from booking where phase = 'CURRENT' and end_date <= localtimestamp | BOOKING_PHASE_END_IDX | PHASE,END_DATE",
+        "select * from items where owner_id = 1 and id > 0 order by id | ITEMS_OWNER_IDX | OWNER_ID,ID",
+        "select * from items where request_id in (1, 2) | ITEMS_REQUEST_IDX | REQUEST_ID",
+        "select * from item_requests where owner_id = 1 order by created_date | ITEM_REQUESTS_OWNER_CREATED_IDX | OWNER_ID,CREATED_DATE",
+        "select * from comments where item_id in (1, 2) order by created | COMMENTS_ITEM_IDX | ITEM_ID"
+    })
+    void explain_usesIndex(String query, String index, String columns) {
+        String plan = jdbcTemplate.queryForObject("explain " + query, String.class);
+        List<String> indexColumns = jdbcTemplate.queryForList("select column_name from information_schema.index_columns " +
+                "where index_name = ? order by ordinal_position", String.class, index);
+
+        assertFalse(plan.contains("tableScan"), "Выборка читает всю таблицу: " + plan);
+        assertEquals(List.of(columns.split(",")), indexColumns, "Индекс " + index + " не создан миграцией");
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.UserDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private BookingController bookingController;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Test
+    @DisplayName("Из параллельных решений по одному бронированию проходит только одно")
+    void updateBooking_singleDecision_whenConcurrent() throws Exception {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        BookingDto booking = bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS))
+                .end(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS))
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                return bookingController.updateBooking(owner.getId(), booking.getId(), approved);
+            }));
+        }
+        start.countDown();
+
+        List<BookingDto> decided = new ArrayList<>();
+        int conflicts = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                decided.add(result.get());
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, decided.size(), "Решение должно пройти ровно один раз");
+        assertEquals(THREADS - 1, conflicts, "Остальные решения должны завершиться конфликтом");
+        assertEquals(decided.get(0).getStatus(),
+                bookingController.getBooking(owner.getId(), booking.getId()).getStatus(),
+                "Статус должен совпадать с принятым решением");
+    }
+
+    @Test
+    @DisplayName("Бронирование, которого нет в индексе этого узла, отклоняется проверкой в базе")
+    void createBooking_throwValidation_whenOverlapOnlyInDatabase() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto other = bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId()).start(start).end(start.plusDays(1)).build());
+        bookingIntervalIndex.release(bookingRepository.findById(other.getId()).orElseThrow());
+
+        assertThrows(ValidationException.class, () -> bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId()).start(start.plusHours(12)).end(start.plusDays(2)).build()),
+                "Пересечение с бронированием другого узла должно отклоняться");
+        assertFalse(bookingIntervalIndex.isBusy(item.getId(), start.plusDays(1), start.plusDays(2)),
+                "Отклонённое бронирование не должно попасть в индекс");
+    }
+
+    @Test
+    @DisplayName("Период, который индекс узла ещё считает занятым, бронируется, если в базе он свободен")
+    void createBooking_created_whenIndexStale() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookingIntervalIndex.add(Booking.builder().item(Item.builder().id(item.getId()).build())
+                .start(start).end(start.plusDays(1)).build());
+
+        BookingDto created = bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId()).start(start).end(start.plusDays(1)).build());
+
+        assertEquals(Status.WAITING, created.getStatus(), "Бронирование должно создаться по проверке в базе");
+    }
+
+    @Test
+    @DisplayName("Пакетный отказ освобождает период в индексе после commit")
+    void updateBookings_releasePeriod_whenCommitted() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto booking = bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId()).start(start).end(start.plusDays(1)).build());
+        assertTrue(bookingIntervalIndex.isBusy(item.getId(), start, start.plusDays(1)),
+                "Созданное бронирование должно попасть в индекс после commit");
+
+        bookingController.updateBookings(owner.getId(), new BookingDecisionDto(List.of(booking.getId()), false));
+
+        assertFalse(bookingIntervalIndex.isBusy(item.getId(), start, start.plusDays(1)),
+                "Отклонённое бронирование должно освободить период");
+    }
+
+    @Test
+    @DisplayName("Пакетное бронирование вставляется целиком или откатывается целиком")
+    void createBookings_allOrNothing_whenOneOverlaps() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        List<BookingDto> created = bookingController.createBookings(booker.getId(), List.of(
+                BookingDto.builder().itemId(item.getId()).start(start).end(start.plusDays(1)).build(),
+                BookingDto.builder().itemId(item.getId()).start(start.plusDays(2)).end(start.plusDays(3)).build()));
+        assertEquals(2, created.size());
+        created.forEach(booking -> assertTrue(bookingRepository.findById(booking.getId()).isPresent(),
+                "Бронирование из пакета не сохранено под своим id"));
+        assertEquals(Status.WAITING, bookingRepository.findById(created.get(0).getId()).orElseThrow().getStatus());
+
+        assertThrows(ValidationException.class, () -> bookingController.createBookings(booker.getId(), List.of(
+                BookingDto.builder().itemId(item.getId()).start(start.plusDays(5)).end(start.plusDays(6)).build(),
+                BookingDto.builder().itemId(item.getId()).start(start.plusHours(1)).end(start.plusHours(2)).build())));
+        assertEquals(2, bookingRepository.count(), "Пакет с пересечением не должен сохраниться частично");
+        assertFalse(bookingIntervalIndex.isBusy(item.getId(), start.plusDays(5), start.plusDays(6)),
+                "Откатившийся пакет не должен попасть в индекс");
+    }
+}
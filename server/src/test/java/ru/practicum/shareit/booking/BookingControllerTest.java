@@ -10,6 +10,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -79,6 +82,18 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.itemId", is(bookingDto.getItemId()), Long.class));
     }
 
+    @Test
+    @DisplayName("Повторное решение по бронированию")
+    void updateBooking_returnConflict_whenAlreadyDecided() throws Exception {
+        when(bookingService.update(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ConflictException("Бронирование уже рассмотрено"));
+
+        mvc.perform(patch("/bookings/1?approved=true")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("Запрос бронирования")
     void getBooking_compareResult_whenObjectCurrent() throws Exception {
@@ -131,4 +146,30 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(List.of(bookingDto))));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Запрос бронирования хозяина по cursor")
+    void getAllBookingByOwner_returnNextCursor_whenPageIsFull() throws Exception {
+        Cursor cursor = Cursor.of(LocalDateTime.of(2030, 1, 1, 12, 0), 5L);
+        bookingDto.setStart(LocalDateTime.of(2029, 1, 1, 12, 0));
+        when(bookingService.getAllByOwner(anyLong(), anyString(), eq(cursor), eq(1)))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings/owner?size=1&cursor=" + cursor.encode())
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class))
+                .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER,
+                        Cursor.of(bookingDto.getStart(), bookingDto.getId()).encode()));
+    }
+
+    @Test
+    @DisplayName("Запрос бронирования с некорректным cursor")
+    void getAllBookingByUser_returnBadRequest_whenCursorMalformed() throws Exception {
+        mvc.perform(get("/bookings?cursor=broken")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
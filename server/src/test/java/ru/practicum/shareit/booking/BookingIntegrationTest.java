@@ -5,16 +5,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -69,14 +73,14 @@ public class BookingIntegrationTest {
 
     private final BookingDto bookingDtoResponse1 = BookingDto.builder()
             .itemId(1L)
-            .start(LocalDateTime.of(2024, 1, 1, 1, 1))
-            .end(LocalDateTime.of(2025, 1, 1, 1, 1))
+            .start(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS))
+            .end(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS))
             .build();
 
     private final BookingDto bookingDtoResponse2 = BookingDto.builder()
             .itemId(2L)
-            .start(LocalDateTime.of(2024, 1, 1, 1, 1))
-            .end(LocalDateTime.of(2025, 1, 1, 1, 1))
+            .start(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS))
+            .end(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS))
             .build();
 
     @BeforeEach
@@ -96,14 +100,38 @@ public class BookingIntegrationTest {
         assertEquals(1, bookingDto.getId(), "id должен быть 1");
     }
 
+    @Test
+    @DisplayName("Проверяем, что пересекающееся бронирование вещи отклоняется.")
+    void createBooking_throwValidationException_whenPeriodOverlaps() {
+        bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+        BookingDto overlapping = BookingDto.builder()
+                .itemId(1L)
+                .start(bookingDtoResponse1.getStart().plusHours(1))
+                .end(bookingDtoResponse1.getEnd().plusHours(1))
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingController.createBooking(USER_ID_TWO, overlapping));
+    }
+
+    @Test
+    @DisplayName("Проверяем, что после отказа период снова доступен для бронирования.")
+    void createBooking_compareResult_whenOverlappingBookingRejected() {
+        bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+        bookingController.updateBooking(USER_ID_ONE, BOOKING_ID_ONE, false);
+
+        BookingDto bookingDto = bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+
+        assertEquals(Status.WAITING, bookingDto.getStatus(), "Статус должен совпадать.");
+    }
+
     @Test
     @DisplayName("Проверяем метод GET owner (все id) контроллера booking.")
     void getBookingOwner_compareResult_whenCorrect() {
         bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
         bookingController.createBooking(USER_ID_ONE, bookingDtoResponse2);
 
-        List<BookingDto> bookingDtoRequests1 = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, SIZE);
-        List<BookingDto> bookingDtoRequests2 = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, SIZE);
+        List<BookingDto> bookingDtoRequests1 = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, SIZE, null).getBody();
+        List<BookingDto> bookingDtoRequests2 = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, SIZE, null).getBody();
 
         assertEquals(1, bookingDtoRequests1.size(), "Размер списка должен быть равен 1.");
         assertEquals(bookingDtoResponse1.getItemId(), bookingDtoRequests1.get(0).getItem().getId(), "Вещи должны совпадать.");
@@ -112,6 +140,28 @@ public class BookingIntegrationTest {
     }
 
 
+    @Test
+    @DisplayName("Проверяем постраничный вывод бронирований владельца по cursor.")
+    void getBookingOwner_compareResult_whenCursor() {
+        BookingDto later = bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+        BookingDto earlier = bookingController.createBooking(USER_ID_TWO, BookingDto.builder()
+                .itemId(1L)
+                .start(bookingDtoResponse1.getStart().minusHours(5))
+                .end(bookingDtoResponse1.getStart().minusHours(1))
+                .build());
+
+        ResponseEntity<List<BookingDto>> first = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, 1, null);
+        String cursor = first.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER);
+        ResponseEntity<List<BookingDto>> second = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, 1, cursor);
+        ResponseEntity<List<BookingDto>> last = bookingController.getAllBookingByOwner(USER_ID_ONE, "ALL", FROM, 1,
+                second.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER));
+
+        assertNotNull(cursor, "Должен возвращаться cursor следующей страницы.");
+        assertEquals(later.getId(), first.getBody().get(0).getId(), "Сначала идёт более позднее бронирование.");
+        assertEquals(earlier.getId(), second.getBody().get(0).getId(), "Затем более раннее.");
+        assertEquals(0, last.getBody().size(), "Больше бронирований нет.");
+    }
+
     @Test
     @DisplayName("Проверяем метод GET(id) контроллера booking. Проверяем метод POST контроллера booking.")
     void getBooking_compareResult_whenCorrect() {
@@ -150,4 +200,61 @@ public class BookingIntegrationTest {
         bookingDtoRequests = bookingController.getBooking(BOOKING_ID_TWO, USER_ID_TWO);
         assertEquals(Status.REJECTED, bookingDtoRequests.getStatus(), "Статус должен совпадать.");
     }
+
+    @Test
+    @DisplayName("Проверяем пакетное решение по бронированиям.")
+    void updateBookings_compareResult_whenMixedIds() {
+        bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+        bookingController.createBooking(USER_ID_ONE, bookingDtoResponse2);
+
+        List<BookingDecisionResultDto> results = bookingController.updateBookings(USER_ID_ONE,
+                new BookingDecisionDto(List.of(BOOKING_ID_ONE, BOOKING_ID_TWO, 99L), true));
+
+        assertEquals(3, results.size(), "Результат должен быть по каждому бронированию.");
+        assertEquals(Status.APPROVED, results.get(0).getStatus(), "Статус должен совпадать.");
+        assertNull(results.get(0).getError(), "Ошибки быть не должно.");
+        assertNotNull(results.get(1).getError(), "Чужое бронирование не должно подтверждаться.");
+        assertNotNull(results.get(2).getError(), "Несуществующее бронирование не должно подтверждаться.");
+        assertEquals(Status.APPROVED, bookingController.getBooking(USER_ID_ONE, BOOKING_ID_ONE).getStatus());
+        assertEquals(Status.WAITING, bookingController.getBooking(USER_ID_ONE, BOOKING_ID_TWO).getStatus());
+
+        BookingDecisionResultDto repeated = bookingController.updateBookings(USER_ID_ONE,
+                new BookingDecisionDto(List.of(BOOKING_ID_ONE), false)).get(0);
+
+        assertEquals(Status.APPROVED, repeated.getStatus(), "Повторное решение не должно менять статус.");
+        assertNotNull(repeated.getError(), "Повторное решение должно вернуть ошибку.");
+    }
+
+    @Test
+    @DisplayName("Проверяем пакетное создание бронирований.")
+    void createBookings_compareResult_whenCorrect() {
+        BookingDto later = BookingDto.builder()
+                .itemId(1L)
+                .start(bookingDtoResponse1.getEnd().plusDays(1))
+                .end(bookingDtoResponse1.getEnd().plusDays(2))
+                .build();
+
+        List<BookingDto> bookings = bookingController.createBookings(USER_ID_TWO, List.of(bookingDtoResponse1, later));
+
+        assertEquals(2, bookings.size(), "Должны быть созданы оба бронирования.");
+        assertTrue(bookings.stream().allMatch(booking -> booking.getStatus() == Status.WAITING), "Статус должен совпадать.");
+        assertEquals(USER_ID_TWO, bookings.get(1).getBooker().getId(), "Автор должен совпадать.");
+    }
+
+    @Test
+    @DisplayName("Проверяем, что пакет с пересечением не создаёт ни одного бронирования.")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    void createBookings_throwValidationException_whenEntriesOverlap() {
+        BookingDto overlapping = BookingDto.builder()
+                .itemId(1L)
+                .start(bookingDtoResponse1.getStart().plusHours(1))
+                .end(bookingDtoResponse1.getEnd().plusHours(1))
+                .build();
+
+        assertThrows(ValidationException.class,
+                () -> bookingController.createBookings(USER_ID_TWO, List.of(bookingDtoResponse1, overlapping)));
+
+        BookingDto bookingDto = bookingController.createBooking(USER_ID_TWO, bookingDtoResponse1);
+        assertEquals(Status.WAITING, bookingDto.getStatus(), "Период должен остаться свободным.");
+    }
 }
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    private final BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, Duration.ofSeconds(30));
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.findPeriodsByStatusInAndEndAfter(any(), any())).thenReturn(List.of());
+        index.load();
+    }
+
+    @Test
+    @DisplayName("Пересекающийся период занят")
+    void isBusy_returnTrue_whenPeriodOverlaps() {
+        index.add(booking(1L, NOW, NOW.plusDays(2)));
+
+        assertTrue(index.isBusy(1L, NOW.plusDays(1), NOW.plusDays(3)), "Пересечение справа");
+        assertTrue(index.isBusy(1L, NOW.minusDays(1), NOW.plusDays(1)), "Пересечение слева");
+        assertTrue(index.isBusy(1L, NOW.plusHours(1), NOW.plusHours(2)), "Вложенный период");
+        assertTrue(index.isBusy(1L, NOW.minusDays(1), NOW.plusDays(3)), "Охватывающий период");
+    }
+
+    @Test
+    @DisplayName("Смежные периоды и другие вещи свободны")
+    void isBusy_returnFalse_whenPeriodsAdjacentOrOtherItem() {
+        index.add(booking(1L, NOW, NOW.plusDays(1)));
+
+        assertFalse(index.isBusy(1L, NOW.plusDays(1), NOW.plusDays(2)), "Период сразу после");
+        assertFalse(index.isBusy(1L, NOW.minusDays(1), NOW), "Период сразу до");
+        assertFalse(index.isBusy(2L, NOW, NOW.plusDays(1)), "Другая вещь");
+    }
+
+    @Test
+    @DisplayName("Освобождённый период снова доступен")
+    void release_periodIsFree_whenReleased() {
+        Booking booking = booking(1L, NOW, NOW.plusDays(1));
+        index.add(booking);
+        assertTrue(index.isBusy(1L, NOW.plusHours(1), NOW.plusHours(2)));
+
+        index.release(booking);
+
+        assertFalse(index.isBusy(1L, NOW.plusHours(1), NOW.plusHours(2)));
+    }
+
+    @Test
+    @DisplayName("Индекс строится из репозитория")
+    void load_periodIsBusy_whenBookingInRepository() {
+        BookingPeriod period = mock(BookingPeriod.class);
+        when(period.getItemId()).thenReturn(3L);
+        when(period.getStart()).thenReturn(NOW);
+        when(period.getEnd()).thenReturn(NOW.plusDays(1));
+        when(bookingRepository.findPeriodsByStatusInAndEndAfter(any(), any())).thenReturn(List.of(period));
+
+        index.load();
+
+        assertTrue(index.isBusy(3L, NOW.plusHours(1), NOW.plusDays(2)));
+        assertFalse(index.isBusy(3L, NOW.plusDays(1), NOW.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Пересекающиеся и совпадающие интервалы из базы снимаются по одному")
+    void release_keepOtherPeriods_whenLegacyPeriodsOverlap() {
+        List<BookingPeriod> periods = List.of(
+                period(4L, NOW, NOW.plusDays(2)),
+                period(4L, NOW, NOW.plusDays(1)),
+                period(4L, NOW, NOW.plusDays(1)),
+                period(4L, NOW.plusHours(12), NOW.plusDays(3)));
+        when(bookingRepository.findPeriodsByStatusInAndEndAfter(any(), any())).thenReturn(periods);
+        index.load();
+
+        assertTrue(index.isBusy(4L, NOW.plusDays(2), NOW.plusDays(4)), "Пересечение с поздним интервалом");
+        index.release(booking(4L, NOW.plusHours(12), NOW.plusDays(3)));
+        assertTrue(index.isBusy(4L, NOW.plusDays(1), NOW.plusDays(2)), "Длинный интервал ещё занимает вещь");
+
+        index.release(booking(4L, NOW, NOW.plusDays(2)));
+        index.release(booking(4L, NOW, NOW.plusDays(1)));
+        assertTrue(index.isBusy(4L, NOW.plusHours(1), NOW.plusHours(2)), "Совпадающий интервал ещё занимает вещь");
+
+        index.release(booking(4L, NOW, NOW.plusDays(1)));
+        assertFalse(index.isBusy(4L, NOW, NOW.plusDays(3)), "Все интервалы сняты");
+    }
+
+    @Test
+    @DisplayName("Закончившиеся интервалы отбрасываются при добавлении")
+    void add_pruneEndedPeriods_whenAdded() {
+        LocalDateTime now = LocalDateTime.now();
+        index.add(booking(5L, now.minusDays(2), now.minusDays(1)));
+        assertTrue(index.isBusy(5L, now.minusDays(2), now.minusDays(1)));
+
+        index.add(booking(5L, now.plusDays(1), now.plusDays(2)));
+
+        assertFalse(index.isBusy(5L, now.minusDays(2), now.minusDays(1)), "Закончившийся интервал должен отброситься");
+        assertTrue(index.isBusy(5L, now.plusDays(1), now.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Перечитывание снимает периоды, освобождённые на другом узле")
+    void load_removeReleasedElsewhere_whenReloaded() {
+        index.add(booking(6L, NOW, NOW.plusDays(1)));
+
+        index.load();
+
+        assertFalse(index.isBusy(6L, NOW, NOW.plusDays(1)), "Период должен исчезнуть после перечитывания");
+    }
+
+    @Test
+    @DisplayName("Период, добавленный во время перечитывания, остаётся в новом индексе")
+    void load_replayChange_whenAddedDuringLoad() {
+        when(bookingRepository.findPeriodsByStatusInAndEndAfter(any(), any())).thenAnswer(invocation -> {
+            index.add(booking(7L, NOW, NOW.plusDays(1)));
+            return List.of();
+        });
+
+        index.load();
+
+        assertTrue(index.isBusy(7L, NOW, NOW.plusDays(1)), "Изменение во время чтения потеряно");
+    }
+
+    private BookingPeriod period(long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingPeriod period = mock(BookingPeriod.class);
+        when(period.getItemId()).thenReturn(itemId);
+        when(period.getStart()).thenReturn(start);
+        when(period.getEnd()).thenReturn(end);
+        return period;
+    }
+
+    private Booking booking(long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(Item.builder().id(itemId).build())
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
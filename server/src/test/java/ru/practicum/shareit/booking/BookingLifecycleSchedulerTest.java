@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.SchedulerLockRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({BookingLifecycleScheduler.class, BookingIntervalIndex.class})
+@TestPropertySource(properties = {
+        "shareit.booking.lifecycle.enabled=false",
+        "shareit.booking.lifecycle.batch-size=1"
+})
+class BookingLifecycleSchedulerTest {
+    @Autowired
+    private BookingLifecycleScheduler bookingLifecycleScheduler;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@mail").build());
+        item = itemRepository.save(Item.builder().owner(owner).name("name").description("desc").available(true).build());
+    }
+
+    @Test
+    @DisplayName("Фаза бронирования обновляется по наступлению start и end")
+    void sweep_updatePhase_whenTimePassed() {
+        Booking booking = save(Status.APPROVED, now.plusHours(1), now.plusHours(2));
+        assertEquals(Phase.FUTURE, booking.getPhase(), "Новое бронирование должно быть в будущем");
+
+        LocalDateTime next = bookingLifecycleScheduler.sweep(now.plusMinutes(59).plusSeconds(30));
+        assertEquals(now.plusHours(1), next, "Следующий запуск должен совпадать с началом бронирования");
+        assertEquals(Phase.FUTURE, reload(booking).getPhase(), "Бронирование ещё не началось");
+
+        bookingLifecycleScheduler.sweep(now.plusMinutes(90));
+        assertEquals(Phase.CURRENT, reload(booking).getPhase(), "Бронирование должно стать текущим");
+
+        bookingLifecycleScheduler.sweep(now.plusHours(3));
+        assertEquals(Phase.PAST, reload(booking).getPhase(), "Бронирование должно стать прошедшим");
+    }
+
+    @Test
+    @DisplayName("Нерассмотренное бронирование отменяется после срока ожидания")
+    void sweep_cancelWaiting_whenGraceExpired() {
+        Booking waiting = save(Status.WAITING, now.plusHours(1), now.plusDays(1));
+        Booking approved = save(Status.APPROVED, now.plusDays(1), now.plusDays(2));
+        bookingIntervalIndex.add(waiting);
+
+        bookingLifecycleScheduler.sweep(now.plusMinutes(90));
+        assertEquals(Status.WAITING, reload(waiting).getStatus(), "Срок ожидания ещё не истёк");
+
+        bookingLifecycleScheduler.sweep(now.plusHours(3));
+        assertEquals(Status.CANCELED, reload(waiting).getStatus(), "Бронирование должно быть отменено");
+        assertEquals(Status.APPROVED, reload(approved).getStatus(), "Подтверждённое бронирование не меняется");
+        assertFalse(bookingIntervalIndex.isBusy(item.getId(), waiting.getStart(), waiting.getEnd()),
+                "Период отменённого бронирования должен освободиться");
+    }
+
+    @Test
+    @DisplayName("Нерассмотренные бронирования отменяются порциями, пока не кончатся")
+    void sweep_cancelAllWaiting_whenMoreThanBatch() {
+        Booking first = save(Status.WAITING, now.plusHours(1), now.plusHours(2));
+        Booking second = save(Status.WAITING, now.plusHours(3), now.plusHours(4));
+        Booking third = save(Status.WAITING, now.plusHours(5), now.plusHours(6));
+
+        bookingLifecycleScheduler.sweep(now.plusHours(7));
+
+        assertEquals(Status.CANCELED, reload(first).getStatus());
+        assertEquals(Status.CANCELED, reload(second).getStatus());
+        assertEquals(Status.CANCELED, reload(third).getStatus(), "Все порции должны быть обработаны за один sweep");
+    }
+
+    @Test
+    @DisplayName("Фаза обновляется порциями, пока не кончатся бронирования")
+    void sweep_updateAllPhases_whenMoreThanBatch() {
+        Booking ended = save(Status.APPROVED, now.plusHours(1), now.plusHours(2));
+        Booking endedLater = save(Status.APPROVED, now.plusHours(1), now.plusHours(2).plusMinutes(30));
+        Booking started = save(Status.APPROVED, now.plusHours(1), now.plusHours(5));
+        Booking startedLater = save(Status.APPROVED, now.plusHours(2), now.plusHours(6));
+
+        bookingLifecycleScheduler.sweep(now.plusHours(3));
+
+        assertEquals(Phase.PAST, reload(ended).getPhase());
+        assertEquals(Phase.PAST, reload(endedLater).getPhase(), "Все порции PAST должны быть обработаны за один sweep");
+        assertEquals(Phase.CURRENT, reload(started).getPhase());
+        assertEquals(Phase.CURRENT, reload(startedLater).getPhase(), "Все порции CURRENT должны быть обработаны за один sweep");
+    }
+
+    @Test
+    @DisplayName("Узел с арендой замечает бронирование, созданное на другом узле")
+    void poll_sweepEarlier_whenBookingCreatedElsewhere() {
+        assertEquals(now.plusMinutes(1), bookingLifecycleScheduler.poll(now), "Без бронирований запуск через max-delay");
+
+        Booking booking = save(Status.APPROVED, now.plusSeconds(30), now.plusHours(1));
+        assertEquals(now.plusSeconds(30), bookingLifecycleScheduler.poll(now.plusSeconds(10)),
+                "Сверка должна приблизить запуск к началу нового бронирования");
+        assertEquals(Phase.FUTURE, reload(booking).getPhase(), "До начала бронирования sweep не нужен");
+
+        bookingLifecycleScheduler.poll(now.plusSeconds(30));
+        assertEquals(Phase.CURRENT, reload(booking).getPhase(), "Наступивший переход должен выполниться");
+    }
+
+    @Test
+    @DisplayName("Аренду держит только один узел, пока она не истекла")
+    void tryAcquire_singleNode_whenLeaseActive() {
+        assertEquals(1, schedulerLockRepository.tryAcquire(BookingLifecycleScheduler.LOCK_NAME, "first", now, now.plusMinutes(2)));
+        assertEquals(0, schedulerLockRepository.tryAcquire(BookingLifecycleScheduler.LOCK_NAME, "second", now, now.plusMinutes(2)),
+                "Второй узел не должен получить активную аренду");
+        assertEquals(1, schedulerLockRepository.tryAcquire(BookingLifecycleScheduler.LOCK_NAME, "first", now.plusMinutes(1),
+                now.plusMinutes(3)), "Владелец продлевает аренду");
+        assertEquals(1, schedulerLockRepository.tryAcquire(BookingLifecycleScheduler.LOCK_NAME, "second", now.plusMinutes(3),
+                now.plusMinutes(5)), "После истечения аренду получает другой узел");
+    }
+
+    private Booking save(Status status, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder().status(status).item(item).booker(booker)
+                .start(start).end(end).build());
+    }
+
+    private Booking reload(Booking booking) {
+        entityManager.clear();
+        return bookingRepository.findById(booking.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.utils.PaginationUtil;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение выборки страницы бронирований владельца через Slice и через Slice + count(*),
+ * как это делал Page. Запуск: mvn test -pl server -Dtest=BookingListingBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingListingBenchmarkTest {
+    private static final int BOOKINGS = 100_000;
+    private static final int BATCH = 1_000;
+    private static final int ROUNDS = 50;
+    private static final int SIZE = 10;
+    private static final String COUNT_QUERY = "select count(b) from Booking b where b.ownerId = ?1";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@bench')");
+        jdbcTemplate.update("insert into users (name, email) values ('booker', 'booker@bench')");
+        ownerId = jdbcTemplate.queryForObject("select id from users where email = 'owner@bench'", Long.class);
+        long bookerId = jdbcTemplate.queryForObject("select id from users where email = 'booker@bench'", Long.class);
+        jdbcTemplate.update("insert into items (owner_id, name, description, is_available) values (?, 'item', 'desc', true)", ownerId);
+        long itemId = jdbcTemplate.queryForObject("select id from items where owner_id = ?", Long.class, ownerId);
+
+        LocalDateTime base = LocalDateTime.now().minusYears(1);
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = base.plusMinutes(i * 10L);
+            batch.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(5)), bookerId, itemId,
+                    ownerId, Status.values()[i % Status.values().length].name()});
+            if (batch.size() == BATCH) {
+                insertBookings(batch);
+                batch.clear();
+            }
+        }
+        insertBookings(batch);
+    }
+
+    @Test
+    @DisplayName("Slice против Slice + count на владельце со 100k бронирований")
+    void findByOwnerId_sliceVsCount() {
+        PageRequest pageRequest = PaginationUtil.getPageRequestDesc(SIZE * 100, SIZE, "start");
+        for (int i = 0; i < ROUNDS / 5; i++) {
+            sliceOnly(pageRequest);
+            sliceWithCount(pageRequest);
+        }
+
+        long sliceNanos = 0;
+        long countNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            sliceOnly(pageRequest);
+            sliceNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            long total = sliceWithCount(pageRequest);
+            countNanos += System.nanoTime() - started;
+            assertEquals(BOOKINGS, total);
+        }
+
+        System.out.printf("Bookings: %d, rounds: %d%n", BOOKINGS, ROUNDS);
+        System.out.printf("Slice:         %.2f ms/request%n", sliceNanos / 1e6 / ROUNDS);
+        System.out.printf("Slice + count: %.2f ms/request%n", countNanos / 1e6 / ROUNDS);
+    }
+
+    private void sliceOnly(PageRequest pageRequest) {
+        Slice<Booking> slice = bookingRepository.findByOwnerId(ownerId, pageRequest);
+        assertEquals(SIZE, slice.getNumberOfElements());
+        entityManager.clear();
+    }
+
+    private long sliceWithCount(PageRequest pageRequest) {
+        sliceOnly(pageRequest);
+        return entityManager.getEntityManager().createQuery(COUNT_QUERY, Long.class)
+                .setParameter(1, ownerId)
+                .getSingleResult();
+    }
+
+    private void insertBookings(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("insert into booking (start_date, end_date, booker_id, item_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)",
+                batch);
+    }
+}
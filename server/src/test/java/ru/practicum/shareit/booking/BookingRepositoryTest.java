@@ -4,8 +4,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
@@ -16,8 +21,7 @@ import java.util.List;
 import java.util.Set;
 
 import static java.util.stream.Collectors.toList;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 class BookingRepositoryTest {
@@ -29,6 +33,9 @@ class BookingRepositoryTest {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
     private User user;
     private Item item;
 
@@ -111,7 +118,7 @@ class BookingRepositoryTest {
         bookingRepository.save(booking);
         booking1 = bookingRepository.save(booking1);
 
-        List<Booking> bookings = bookingRepository.findByOwnerIdCurrent(user.getId(), LocalDateTime.now(),
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndPhase(user.getId(), Phase.CURRENT,
                 PageRequest.of(0, 2)).stream().collect(toList());
 
         assertNotNull(bookings, "Не возвращает список");
@@ -130,11 +137,87 @@ class BookingRepositoryTest {
         bookingRepository.save(booking);
         booking1 = bookingRepository.save(booking1);
 
-        List<Booking> bookings = bookingRepository.findByOwnerIdPast(user.getId(), LocalDateTime.now(),
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndPhase(user.getId(), Phase.PAST,
                 PageRequest.of(0, 2)).stream().collect(toList());
 
         assertNotNull(bookings, "Не возвращает список");
         assertEquals(1, bookings.size(), "Не возвращает список с 1");
         assertEquals(booking1, bookings.get(0), "Не возвращает список с 1");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Владелец вещи сохраняется в бронировании")
+    void saveBooking_fillOwnerId_whenItemHasOwner() {
+        Booking booking = bookingRepository.save(Booking.builder().status(Status.WAITING).item(item)
+                .end(LocalDateTime.now().plusDays(1)).start(LocalDateTime.now()).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(user.getId(), bookingRepository.findById(booking.getId()).orElseThrow().getOwnerId(),
+                "Не сохраняет владельца вещи");
+    }
+
+    @Test
+    @DisplayName("Страница бронирований владельца читается одним запросом без count")
+    void findByOwnerId_singleStatement_whenSlice() {
+        for (int i = 0; i < 3; i++) {
+            bookingRepository.save(Booking.builder().status(Status.WAITING).item(item)
+                    .end(LocalDateTime.now().plusDays(i + 1)).start(LocalDateTime.now().plusDays(i)).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Slice<Booking> first = bookingRepository.findByOwnerId(user.getId(),
+                PageRequest.of(0, 2, Sort.by("start").descending()));
+        long queries = statistics.getQueryExecutionCount();
+        Slice<Booking> last = bookingRepository.findByOwnerId(user.getId(),
+                PageRequest.of(1, 2, Sort.by("start").descending()));
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(1, queries, "Выполняется лишний запрос");
+        assertEquals(2, first.getNumberOfElements(), "Не возвращает страницу с 2");
+        assertTrue(first.hasNext(), "Не определяет наличие следующей страницы");
+        assertEquals(1, last.getNumberOfElements(), "Не возвращает страницу с 1");
+        assertFalse(last.hasNext(), "Следующей страницы быть не должно");
+    }
+
+    @Test
+    @DisplayName("По одному последнему и ближайшему бронированию на вещь")
+    void findLastAndNextByItemIdIn_singleRowPerItem_whenLongHistory() {
+        Item other = itemRepository.save(Item.builder().owner(user).name("other").description("desc").build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = null;
+        for (int i = 1; i <= 5; i++) {
+            Booking booking = bookingRepository.save(Booking.builder().status(Status.APPROVED).item(item).booker(user)
+                    .start(now.minusDays(i * 2L)).end(now.minusDays(i * 2L - 1)).build());
+            if (i == 1) {
+                last = booking;
+            }
+        }
+        bookingRepository.save(Booking.builder().status(Status.REJECTED).item(item).booker(user)
+                .start(now.plusHours(1)).end(now.plusHours(2)).build());
+        Booking next = bookingRepository.save(Booking.builder().status(Status.WAITING).item(item).booker(user)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build());
+        bookingRepository.save(Booking.builder().status(Status.APPROVED).item(item).booker(user)
+                .start(now.plusDays(3)).end(now.plusDays(4)).build());
+        Booking otherNext = bookingRepository.save(Booking.builder().status(Status.APPROVED).item(other).booker(user)
+                .start(now.plusDays(5)).end(now.plusDays(6)).build());
+
+        List<ItemBookingView> views = bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId(), other.getId()), now);
+
+        assertEquals(3, views.size(), "Возвращает лишние бронирования");
+        ItemBookingView lastView = views.stream().filter(v -> v.getLast() && v.getItemId().equals(item.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(last.getId(), lastView.getId(), "Не находит последнее бронирование");
+        assertEquals(user.getId(), lastView.getBookerId(), "Не возвращает автора бронирования");
+        ItemBookingView nextView = views.stream().filter(v -> !v.getLast() && v.getItemId().equals(item.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(next.getId(), nextView.getId(), "Отклонённое бронирование не должно быть ближайшим");
+        assertTrue(views.stream().anyMatch(v -> !v.getLast() && v.getId().equals(otherNext.getId())),
+                "Не находит ближайшее бронирование второй вещи");
+    }
+}
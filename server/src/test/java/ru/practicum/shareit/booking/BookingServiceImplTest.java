@@ -2,24 +2,37 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
 import ru.practicum.shareit.exception.UnknownStateException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCardCache;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class BookingServiceImplTest {
@@ -31,7 +44,14 @@ class BookingServiceImplTest {
 
     private final BookingRepository bookingRepository = mock(BookingRepository.class);
 
-    private BookingService bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+    private final BookingIntervalIndex bookingIntervalIndex = mock(BookingIntervalIndex.class);
+
+    private final BookingLifecycleScheduler bookingLifecycleScheduler = mock(BookingLifecycleScheduler.class);
+
+    private final ItemCardCache itemCardCache = mock(ItemCardCache.class);
+
+    private BookingService bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+            bookingLifecycleScheduler, itemCardCache);
 
     private final BookingDto bookingDto = BookingDto.builder().end(LocalDateTime.now()).start(LocalDateTime.now()).itemId(1L).build();
 
@@ -232,6 +252,18 @@ class BookingServiceImplTest {
         assertNotNull(thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Страницы брони хозяина упорядочены по start и id, как курсорные")
+    void getAllByOwner_sortByStartAndId_whenOffsetPage() {
+        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        bookingService.getAllByOwner(1, "ALL", 0, 10);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository).findByOwnerId(eq(1L), pageable.capture());
+        assertEquals(Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id")), pageable.getValue().getSort());
+    }
+
     @Test
     @DisplayName("Запрос всей брони хозяина при -1")
     void getAllByOwner_throwIllegalArgumentException_whenFromNegative() {
@@ -305,7 +337,7 @@ class BookingServiceImplTest {
 
     @Test
     @DisplayName("Неверное обновление бронирования при неверном статусе")
-    void updateBooking_throwValidationException_whenStatusApproved() {
+    void updateBooking_throwConflictException_whenStatusApproved() {
         when(bookingRepository.findById(any()))
                 .thenReturn(Optional.of(Booking.builder()
                         .start(LocalDateTime.now().plusHours(1))
@@ -318,7 +350,7 @@ class BookingServiceImplTest {
                                 .build())
                         .status(Status.APPROVED)
                         .build()));
-        Throwable thrown = assertThrows(ValidationException.class, () -> {
+        Throwable thrown = assertThrows(ConflictException.class, () -> {
             bookingService.update(1, 1, false);
         });
 
@@ -327,7 +359,7 @@ class BookingServiceImplTest {
 
     @Test
     @DisplayName("Неверное обновление бронирования при неверном статусе")
-    void updateBooking_throwValidationException_whenStatusRejected() {
+    void updateBooking_throwConflictException_whenStatusRejected() {
         when(bookingRepository.findById(any()))
                 .thenReturn(Optional.of(Booking.builder()
                         .start(LocalDateTime.now().plusHours(1))
@@ -340,18 +372,107 @@ class BookingServiceImplTest {
                                 .build())
                         .status(Status.REJECTED)
                         .build()));
-        Throwable thrown = assertThrows(ValidationException.class, () -> {
+        Throwable thrown = assertThrows(ConflictException.class, () -> {
             bookingService.update(1, 1, false);
         });
 
         assertNotNull(thrown.getMessage());
     }
 
+    @Test
+    @DisplayName("Пакетное бронирование загружает пользователя и вещи один раз")
+    void createBookings_loadOnce_whenSeveralEntries() {
+        User owner = User.builder().id(2L).name("name").email("owner@mail").build();
+        Item item = Item.builder().id(1L).owner(owner).available(true).name("name").description("description").build();
+        when(itemService.getItems(any())).thenReturn(Map.of(1L, item));
+        AtomicInteger day = new AtomicInteger();
+        when(bookingMapper.toBooking(any()))
+                .thenAnswer(invocation -> Booking.builder()
+                        .start(LocalDateTime.now().plusDays(day.incrementAndGet()))
+                        .end(LocalDateTime.now().plusDays(day.get()).plusHours(12))
+                        .build());
+        when(bookingRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.createAll(1, List.of(bookingDto, bookingDto));
+
+        verify(userService).getById(1);
+        verify(itemService).getItems(Set.of(1L));
+        verify(bookingRepository).insertAll(any());
+        verify(bookingIntervalIndex, times(2)).addOnCommit(any());
+    }
+
+    @Test
+    @DisplayName("Пакетное бронирование с периодом, занятым в базе, не сохраняется и не попадает в индекс")
+    void createBookings_notIndexed_whenPeriodBusy() {
+        User owner = User.builder().id(2L).name("name").email("owner@mail").build();
+        Item item = Item.builder().id(1L).owner(owner).available(true).name("name").description("description").build();
+        when(itemService.getItems(any())).thenReturn(Map.of(1L, item));
+        AtomicInteger day = new AtomicInteger();
+        when(bookingMapper.toBooking(any()))
+                .thenAnswer(invocation -> Booking.builder()
+                        .start(LocalDateTime.now().plusDays(day.incrementAndGet()))
+                        .end(LocalDateTime.now().plusDays(day.get()).plusHours(12))
+                        .build());
+        when(bookingRepository.countOverlapping(anyLong(), any(), any())).thenReturn(0L, 1L);
+
+        assertThrows(ValidationException.class, () -> bookingService.createAll(1, List.of(bookingDto, bookingDto)));
+
+        verify(bookingIntervalIndex, never()).addOnCommit(any());
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Пакетное бронирование с пересечением внутри пакета отклоняется до проверки в базе")
+    void createBookings_throwValidation_whenEntriesOverlap() {
+        User owner = User.builder().id(2L).name("name").email("owner@mail").build();
+        Item item = Item.builder().id(1L).owner(owner).available(true).name("name").description("description").build();
+        when(itemService.getItems(any())).thenReturn(Map.of(1L, item));
+        when(bookingMapper.toBooking(any()))
+                .thenAnswer(invocation -> Booking.builder()
+                        .start(LocalDateTime.now().plusDays(1))
+                        .end(LocalDateTime.now().plusDays(2))
+                        .build());
+
+        assertThrows(ValidationException.class, () -> bookingService.createAll(1, List.of(bookingDto, bookingDto)));
+
+        verify(bookingRepository, never()).countOverlapping(anyLong(), any(), any());
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Пакетное решение без бронирований")
+    void updateBookings_throwValidationException_whenIdsEmpty() {
+        assertThrows(ValidationException.class, () -> bookingService.updateAll(1, new BookingDecisionDto(List.of(), true)));
+        assertThrows(UnknownStateException.class, () -> bookingService.updateAll(1, new BookingDecisionDto(List.of(1L), null)));
+    }
+
+    @Test
+    @DisplayName("Пакетный отказ освобождает периоды")
+    void updateBookings_releasePeriod_whenRejected() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .status(Status.WAITING)
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .item(Item.builder().id(2L).build())
+                .build();
+        when(bookingRepository.findByIdInAndOwnerIdAndStatus(any(), anyLong(), any())).thenReturn(List.of(booking));
+
+        List<BookingDecisionResultDto> results = bookingService.updateAll(1, new BookingDecisionDto(List.of(1L, 1L), false));
+
+        assertEquals(1, results.size(), "Повторяющиеся id должны схлопываться");
+        assertEquals(Status.REJECTED, results.get(0).getStatus(), "Не возвращает нужный status");
+        verify(bookingRepository).updateStatusByIdIn(Set.of(1L), Status.REJECTED);
+        verify(bookingIntervalIndex).releaseOnCommit(booking);
+        verify(itemCardCache).invalidate(2L);
+    }
+
     @Test
     @DisplayName("Запрос брони")
     void bookingGetById_compareResult_whenOwnerItemWithMapper() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         Booking booking = Booking.builder()
                 .id(1L)
                 .status(Status.WAITING)
@@ -376,14 +497,16 @@ class BookingServiceImplTest {
         assertEquals(booking.getItem(), bookingDto.getItem(), "Не возвращает нужный item");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Запрос брони")
     void bookingGetById_compareResult_whenBookerWithMapper() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         Booking booking = Booking.builder()
                 .booker(User.builder().id(2L).name("name").email("user@mail").build())
                 .start(LocalDateTime.now().plusHours(1))
@@ -406,25 +529,29 @@ class BookingServiceImplTest {
         assertEquals(booking.getItem(), bookingDto.getItem(), "Не возвращает нужный item");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Обновление брони")
     void updateBooking_compareResult_whenApprovedTrueWithMapper() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         Booking booking = Booking.builder()
-                .status(Status.WAITING)
+                .status(Status.APPROVED)
                 .start(LocalDateTime.now().plusHours(1))
                 .end(LocalDateTime.now().plusDays(1))
                 .item(Item.builder()
+                        .id(1L)
                         .owner(User.builder().id(1L).name("name").email("user@mail").build())
                         .available(true)
                         .name("name")
                         .description("description")
                         .build())
                 .build();
+        when(bookingRepository.updateStatusIfWaiting(anyLong(), anyLong(), any())).thenReturn(1);
         when(bookingRepository.findById(any()))
                 .thenReturn(Optional.of(booking));
 
@@ -435,27 +562,32 @@ class BookingServiceImplTest {
         assertEquals(booking.getEnd(), bookingDto.getEnd(), "Не возвращает нужный end");
         assertEquals(booking.getItem(), bookingDto.getItem(), "Не возвращает нужный item");
         assertEquals(Status.APPROVED, bookingDto.getStatus(), "Не возвращает нужный status");
+        verify(bookingRepository).updateStatusIfWaiting(1L, 1L, Status.APPROVED);
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Обновление брони")
     void updateBooking_compareResult_whenApprovedFalseWithMapper() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         Booking booking = Booking.builder()
-                .status(Status.WAITING)
+                .status(Status.REJECTED)
                 .start(LocalDateTime.now().plusHours(1))
                 .end(LocalDateTime.now().plusDays(1))
                 .item(Item.builder()
+                        .id(1L)
                         .owner(User.builder().id(1L).name("name").email("user@mail").build())
                         .available(true)
                         .name("name")
                         .description("description")
                         .build())
                 .build();
+        when(bookingRepository.updateStatusIfWaiting(anyLong(), anyLong(), any())).thenReturn(1);
         when(bookingRepository.findById(any()))
                 .thenReturn(Optional.of(booking));
 
@@ -466,16 +598,19 @@ class BookingServiceImplTest {
         assertEquals(booking.getEnd(), bookingDto.getEnd(), "Не возвращает нужный end");
         assertEquals(booking.getItem(), bookingDto.getItem(), "Не возвращает нужный item");
         assertEquals(Status.REJECTED, bookingDto.getStatus(), "Не возвращает нужный status");
+        verify(bookingRepository).updateStatusIfWaiting(1L, 1L, Status.REJECTED);
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования All")
     void bookingGetAll_compareResult_whenOwnerStateAll() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByOwnerId(anyLong(), any()))
                 .thenReturn(Page.empty());
@@ -486,7 +621,8 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
 
@@ -494,7 +630,8 @@ class BookingServiceImplTest {
     @DisplayName("Сверка количества бронирования FUTURE")
     void bookingGetAllByOwner_compareResult_whenStateFuture() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByOwnerIdAndStatusIn(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -505,14 +642,16 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования REJECTED")
     void bookingGetAllByOwner_compareResult_whenStateRejected() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByOwnerIdAndStatus(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -523,14 +662,16 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования WAITING")
     void bookingGetAllByOwner_compareResult_whenStateWaiting() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByOwnerIdAndStatus(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -541,16 +682,18 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования CURRENT")
     void bookingGetAllByOwner_compareResult_whenStateCurrent() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
-        when(bookingRepository.findByOwnerIdCurrent(anyLong(), any(), any()))
+        when(bookingRepository.findByOwnerIdAndPhase(anyLong(), eq(Phase.CURRENT), any()))
                 .thenReturn(Page.empty());
 
         List<BookingDto> bookingDtos = bookingService.getAllByOwner(1, "CURRENT", 0, 1);
@@ -559,16 +702,18 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования PAST")
     void bookingGetAllByOwner_compareResult_whenStatePast() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
-        when(bookingRepository.findByOwnerIdPast(anyLong(), any(), any()))
+        when(bookingRepository.findByOwnerIdAndPhase(anyLong(), eq(Phase.PAST), any()))
                 .thenReturn(Page.empty());
 
         List<BookingDto> bookingDtos = bookingService.getAllByOwner(1, "PAST", 0, 1);
@@ -577,14 +722,16 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования пользователя ALL")
     void bookingGetAllByUser_compareResult_whenStateAll() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByBookerId(anyLong(), any()))
                 .thenReturn(Page.empty());
@@ -595,7 +742,8 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
 
@@ -603,7 +751,8 @@ class BookingServiceImplTest {
     @DisplayName("Сверка количества бронирования пользователя FUTURE")
     void bookingGetAllByUser_compareResult_whenStateFuture() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByBookerIdAndStatusIn(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -614,14 +763,16 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования пользователя REJECTED")
     void bookingGetAllByUser_compareResult_whenStateRejected() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByBookerIdAndStatusIs(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -632,14 +783,16 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования пользователя WAITING")
     void bookingGetAllByUser_compareResult_whenStateWaiting() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
         when(bookingRepository.findByBookerIdAndStatusIs(anyLong(), any(), any()))
                 .thenReturn(Page.empty());
@@ -650,16 +803,18 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования пользователя CURRENT")
     void bookingGetAllByUser_compareResult_whenStateCurrent() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
-        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(anyLong(), any(), any(), any()))
+        when(bookingRepository.findByBookerIdAndPhase(anyLong(), eq(Phase.CURRENT), any()))
                 .thenReturn(Page.empty());
 
         List<BookingDto> bookingDtos = bookingService.getAllByUser(1, "CURRENT", 0, 1);
@@ -668,16 +823,18 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
     @Test
     @DisplayName("Сверка количества бронирования пользователя PAST")
     void bookingGetAllByUser_compareResult_whenStatePast() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
         when(userService.getById(anyLong())).thenReturn(User.builder().build());
-        when(bookingRepository.findByBookerIdAndEndBefore(anyLong(), any(), any()))
+        when(bookingRepository.findByBookerIdAndPhase(anyLong(), eq(Phase.PAST), any()))
                 .thenReturn(Page.empty());
 
         List<BookingDto> bookingDtos = bookingService.getAllByUser(1, "PAST", 0, 1);
@@ -686,7 +843,8 @@ class BookingServiceImplTest {
         assertEquals(0, bookingDtos.size(), "Не возвращается список");
 
         bookingMapper = mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository);
+        bookingService = new BookingServiceImpl(bookingMapper, itemService, userService, bookingRepository, bookingIntervalIndex,
+                bookingLifecycleScheduler, itemCardCache);
     }
 
 }
\ No newline at end of file
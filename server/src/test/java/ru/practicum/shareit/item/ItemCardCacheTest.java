@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCardCacheTest {
+    private static final long OWNER_ID = 1L;
+
+    private final ItemCardCache cache = new ItemCardCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Карточки владельца и остальных пользователей кэшируются отдельно")
+    void get_separateCards_whenOwnerAndOther() {
+        ItemDto ownerCard = load(1L, OWNER_ID, null);
+        load(1L, OWNER_ID, null);
+        ItemDto otherCard = load(1L, 2L, null);
+        load(1L, 3L, null);
+
+        assertEquals(2, loads.get(), "Повторные запросы должны браться из кэша");
+        assertNotSame(ownerCard, otherCard, "Владелец и остальные должны получать разные карточки");
+        assertSame(ownerCard, load(1L, OWNER_ID, null), "Владелец должен получать свою карточку");
+    }
+
+    @Test
+    @DisplayName("Изменение вещи сбрасывает обе её карточки")
+    void invalidate_removeBothCards_whenItemChanged() {
+        load(1L, OWNER_ID, null);
+        load(1L, 2L, null);
+        load(2L, OWNER_ID, null);
+
+        cache.invalidate(1L);
+
+        assertEquals(1, cache.size(), "Должна остаться только карточка другой вещи");
+        load(1L, 2L, null);
+        assertEquals(4, loads.get(), "После сброса карточка должна собираться заново");
+    }
+
+    @Test
+    @DisplayName("Карточка владельца устаревает с началом ближайшего бронирования")
+    void get_reload_whenNextBookingStarted() {
+        load(1L, OWNER_ID, LocalDateTime.now().minusSeconds(1));
+        load(1L, OWNER_ID, LocalDateTime.now().plusDays(1));
+        load(1L, OWNER_ID, LocalDateTime.now().plusDays(1));
+
+        assertEquals(2, loads.get(), "Устаревшая карточка не должна отдаваться из кэша");
+    }
+
+    @Test
+    @DisplayName("Карточка, собранная во время изменения, в кэше не остаётся")
+    void get_skipCaching_whenInvalidatedDuringLoad() {
+        cache.get(1L, OWNER_ID, () -> {
+            loads.incrementAndGet();
+            cache.invalidate(1L);
+            return new ItemCardCache.Card(itemDto(1L), null);
+        });
+        load(1L, OWNER_ID, null);
+
+        assertEquals(2, loads.get(), "Карточка, собранная во время изменения, не должна кэшироваться");
+    }
+
+    private ItemDto load(long itemId, long userId, LocalDateTime validUntil) {
+        return cache.get(itemId, userId, () -> {
+            loads.incrementAndGet();
+            return new ItemCardCache.Card(itemDto(itemId), validUntil);
+        });
+    }
+
+    private ItemDto itemDto(long itemId) {
+        return ItemDto.builder().id(itemId).owner(User.builder().id(OWNER_ID).build()).build();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Карточка вещи собирается фиксированным числом запросов: вещь с владельцем, бронирования, комментарии.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "shareit.booking.lifecycle.enabled=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemCardQueryCountTest {
+    private static final int MAX_STATEMENTS = 3;
+
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private BookingController bookingController;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Карточка вещи для владельца читается не более чем тремя запросами")
+    void getItem_fixedStatementCount_whenBookingsAndComments() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        for (int i = 0; i < 3; i++) {
+            UserDto booker = userController.add(UserDto.builder().name("booker" + i).email("booker" + i + "@mail.ru").build());
+            bookingController.createBooking(booker.getId(), BookingDto.builder()
+                    .itemId(item.getId())
+                    .start(LocalDateTime.now().plusDays(i * 2L + 1))
+                    .end(LocalDateTime.now().plusDays(i * 2L + 2))
+                    .build());
+        }
+        UserDto author = userController.add(UserDto.builder().name("author").email("author@mail.ru").build());
+        Booking past = bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(item.getId()).orElseThrow())
+                .booker(userRepository.findById(author.getId()).orElseThrow())
+                .start(LocalDateTime.now().minusDays(3))
+                .end(LocalDateTime.now().minusDays(2))
+                .status(Status.APPROVED)
+                .build());
+        itemController.createComment(author.getId(), item.getId(), CommentDto.builder().text("first").build());
+        itemController.createComment(author.getId(), item.getId(), CommentDto.builder().text("second").build());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        ItemDto card = itemController.getItem(owner.getId(), item.getId());
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(past.getId(), card.getLastBooking().getId(), "Неверное последнее бронирование");
+        assertEquals(bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
+                .min((a, b) -> a.getStart().compareTo(b.getStart()))
+                .orElseThrow().getId(), card.getNextBooking().getId(), "Неверное следующее бронирование");
+        assertEquals("second", card.getComments().get(0).getText(), "Сначала должны идти новые комментарии");
+        assertTrue(statements <= MAX_STATEMENTS, "Карточка вещи собрана за " + statements + " запросов");
+    }
+
+    @Test
+    @DisplayName("Повторная карточка берётся из кэша без запросов, бронирование и комментарий её сбрасывают")
+    void getItem_noStatements_whenCached() {
+        UserDto owner = userController.add(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto booker = userController.add(UserDto.builder().name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemController.add(owner.getId(), ItemDto.builder()
+                .name("name").description("description").available(true).build());
+        itemController.getItem(owner.getId(), item.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        ItemDto cached = itemController.getItem(owner.getId(), item.getId());
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        BookingDto booking = bookingController.createBooking(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        ItemDto booked = itemController.getItem(owner.getId(), item.getId());
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(item.getId()).orElseThrow())
+                .booker(userRepository.findById(booker.getId()).orElseThrow())
+                .start(LocalDateTime.now().minusDays(3))
+                .end(LocalDateTime.now().minusDays(2))
+                .status(Status.APPROVED)
+                .build());
+        itemController.createComment(booker.getId(), item.getId(), CommentDto.builder().text("text").build());
+        ItemDto commented = itemController.getItem(booker.getId(), item.getId());
+
+        assertEquals(0, statements, "Карточка из кэша не должна обращаться к базе");
+        assertNull(cached.getNextBooking(), "Бронирований ещё не было");
+        assertEquals(booking.getId(), booked.getNextBooking().getId(), "Новое бронирование должно сбросить карточку");
+        assertEquals(1L, commented.getCommentsCount(), "Комментарий должен сбросить карточку");
+        assertNull(commented.getNextBooking(), "Не владелец не должен видеть бронирования");
+    }
+}
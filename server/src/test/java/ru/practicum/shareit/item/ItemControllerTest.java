@@ -10,13 +10,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.geo.GeoPoint;
+import ru.practicum.shareit.item.trending.TrendingDto;
+import ru.practicum.shareit.item.trending.TrendingTracker;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,6 +33,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private TrendingTracker trendingTracker;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
@@ -152,7 +162,7 @@ class ItemControllerTest {
     @Test
     @DisplayName("Поиск вещи без пагинации")
     void searchItems_compareResult_whenDefaultSize() throws Exception {
-        when(itemService.searchText(anyLong(), anyString(), anyInt(), anyInt()))
+        when(itemService.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), anyInt(), anyInt()))
                 .thenReturn(List.of(itemDto));
 
         mvc.perform(get("/items/search?text=description")
@@ -164,10 +174,30 @@ class ItemControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
     }
 
+    @Test
+    @DisplayName("Поиск вещей рядом с точкой")
+    void searchItems_searchNearby_whenCenterSet() throws Exception {
+        when(itemService.searchNearby(1L, "", new GeoPoint(55.75, 37.62), 5.0, null, null, false, 0, 10))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search?lat=55.75&lon=37.62&radius=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PaginationUtil.NEXT_CURSOR_HEADER))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
+        mvc.perform(get("/items/search?lat=55.75&lon=37.62")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Поиск вещи c пагинацией")
     void searchItems_compareResult_whenSize5() throws Exception {
-        when(itemService.searchText(anyLong(), anyString(), anyInt(), anyInt()))
+        when(itemService.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), anyInt(), anyInt()))
                 .thenReturn(List.of(itemDto));
 
         mvc.perform(get("/items/search?text=description&from=0&size=5")
@@ -178,4 +208,54 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Страница комментариев вещи с cursor следующей страницы")
+    void getComments_returnNextCursor_whenPageFull() throws Exception {
+        CommentDto commentDto = CommentDto.builder().id(3L).text("text").authorName("name")
+                .created(LocalDateTime.of(2023, 1, 1, 12, 0)).build();
+        when(itemService.getComments(1L, 1L, null, 1)).thenReturn(List.of(commentDto));
+
+        mvc.perform(get("/items/1/comments?size=1")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER, Cursor.of(commentDto.getCreated(), 3L).encode()))
+                .andExpect(jsonPath("$[0].text", is("text")));
+    }
+
+    @Test
+    @DisplayName("Подсказки по началу названия")
+    void suggest_compareResult_whenPrefixSet() throws Exception {
+        when(itemService.suggest("дре", 5)).thenReturn(List.of("Дрель"));
+
+        mvc.perform(get("/items/suggest?prefix=дре&size=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of("Дрель"))));
+    }
+
+    @Test
+    @DisplayName("Популярные запросы и вещи")
+    void getTrending_compareResult_whenSearched() throws Exception {
+        TrendingDto trendingDto = TrendingDto.builder().searches(List.of("description")).items(List.of(itemDto)).build();
+        when(itemService.searchText(anyLong(), anyString(), any(), any(), anyBoolean(), anyInt(), anyInt()))
+                .thenReturn(List.of(itemDto));
+        when(itemService.getTrending(5)).thenReturn(trendingDto);
+
+        mvc.perform(get("/items/search?text=description")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        mvc.perform(get("/items/trending?size=5")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(trendingDto)));
+
+        verify(trendingTracker).recordSearch("description");
+    }
+}
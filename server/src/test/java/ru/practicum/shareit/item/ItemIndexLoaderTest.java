@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.geo.ItemGeoIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemIndexLoaderTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchIndex itemSearchIndex = new ItemSearchIndex(2);
+    private final ItemSuggestIndex itemSuggestIndex = new ItemSuggestIndex();
+    private final ItemGeoIndex itemGeoIndex = new ItemGeoIndex(0.05);
+    private final ItemCardCache itemCardCache = mock(ItemCardCache.class);
+    private ItemIndexLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new ItemIndexLoader(itemRepository, itemSearchIndex, itemSuggestIndex, itemGeoIndex,
+                new ItemSearchCache(1000, new SimpleMeterRegistry()), itemCardCache,
+                Duration.ofSeconds(30), Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Все три индекса заполняются из одного запроса")
+    void load_fillAllIndexes_whenItemsLoaded() {
+        ItemIndexView drill = view(1L, "Дрель", true, false, null);
+        ItemIndexView saw = view(2L, "Пила", true, false, null);
+        when(itemRepository.findIndexViewsAfter(anyLong(), any())).thenReturn(List.of(drill, saw));
+
+        loader.load();
+
+        verify(itemRepository, times(1)).findIndexViewsAfter(anyLong(), any());
+        assertEquals(List.of(1L), itemSearchIndex.search("дрель", id -> false), "поиск не нашёл вещь");
+        assertEquals(List.of("Дрель"), itemSuggestIndex.suggest("дре", 5), "подсказки не нашли вещь");
+        assertEquals(2, itemGeoIndex.size(), "вещи не попали в сетку координат");
+    }
+
+    @Test
+    @DisplayName("Изменения с других узлов применяются, удалённые и недоступные вещи убираются из индексов")
+    void refresh_applyChanges_whenChangedElsewhere() {
+        List<ItemIndexView> items = List.of(
+                view(1L, "Дрель", true, false, null), view(2L, "Пила", true, false, null), view(3L, "Молоток", true, false, null));
+        when(itemRepository.findIndexViewsAfter(anyLong(), any())).thenReturn(items);
+        loader.load();
+        LocalDateTime updatedAt = LocalDateTime.now();
+        List<ItemChangeView> changes = List.of(
+                view(1L, "Дрель", true, true, updatedAt),
+                view(2L, "Пила", false, false, updatedAt),
+                view(3L, "Молоток ударный", true, false, updatedAt));
+        when(itemRepository.findChangedAfter(any(), anyLong(), anyInt())).thenReturn(changes);
+
+        assertEquals(3, loader.refresh(), "применены не все изменения");
+
+        assertEquals(List.of(), itemSearchIndex.search("дрель", id -> false), "удалённая вещь осталась в поиске");
+        assertEquals(List.of(), itemSearchIndex.search("пила", id -> false), "недоступная вещь осталась в поиске");
+        assertEquals(List.of(3L), itemSearchIndex.search("ударный", id -> false), "изменённая вещь не переиндексирована");
+        assertEquals(List.of(), itemSuggestIndex.suggest("дре", 5), "удалённая вещь осталась в подсказках");
+        assertEquals(1, itemGeoIndex.size(), "удалённые вещи остались в сетке координат");
+        verify(itemCardCache, times(3)).invalidate(anyLong());
+    }
+
+    @Test
+    @DisplayName("Перечитанная в окне перекрытия вещь с тем же updatedAt повторно не применяется")
+    void refresh_skipApplied_whenReadAgain() {
+        when(itemRepository.findIndexViewsAfter(anyLong(), any())).thenReturn(List.of());
+        loader.load();
+        LocalDateTime updatedAt = LocalDateTime.now();
+        List<ItemChangeView> changes = List.of(view(1L, "Дрель", true, false, updatedAt));
+        when(itemRepository.findChangedAfter(any(), anyLong(), anyInt())).thenReturn(changes);
+
+        assertEquals(1, loader.refresh(), "новая вещь не применена");
+        assertEquals(0, loader.refresh(), "вещь применена повторно");
+        verify(itemCardCache, times(1)).invalidate(1L);
+    }
+
+    private static ItemChangeView view(long id, String name, boolean available, boolean deleted, LocalDateTime updatedAt) {
+        ItemChangeView view = mock(ItemChangeView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getName()).thenReturn(name);
+        when(view.getDescription()).thenReturn(name);
+        when(view.isAvailable()).thenReturn(available);
+        when(view.isDeleted()).thenReturn(deleted);
+        when(view.getLatitude()).thenReturn(55.75);
+        when(view.getLongitude()).thenReturn(37.61 + id / 100.0);
+        when(view.getUpdatedAt()).thenReturn(updatedAt);
+        return view;
+    }
+}
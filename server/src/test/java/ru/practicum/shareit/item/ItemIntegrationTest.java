@@ -5,15 +5,25 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +42,12 @@ public class ItemIntegrationTest {
     private UserController userController;
     @Autowired
     private BookingController bookingController;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CommentRepository commentRepository;
 
     User user = User.builder().id(1L).name("name").email("user@mail.ru").build();
 
@@ -75,12 +91,33 @@ public class ItemIntegrationTest {
         ItemDto itemDtoOne = itemController.add(USER_ID_ONE, itemDtoTestOne);
         ItemDto itemDtoTwo = itemController.add(USER_ID_ONE, itemDtoTestTwo);
 
-        List<ItemDto> itemDtos = itemController.getItems(USER_ID_ONE, FROM, SIZE);
+        List<ItemDto> itemDtos = itemController.getItems(USER_ID_ONE, FROM, SIZE, null).getBody();
         assertEquals(2, itemDtos.size(), "Размер списка должен быть равен 2.");
         assertEquals(itemDtoOne, itemDtos.get(0), "Вещи должны совпадать.");
         assertEquals(itemDtoTwo, itemDtos.get(1), "Вещи должны совпадать.");
     }
 
+    @Test
+    @DisplayName("Проверяем постраничный вывод вещей владельца и поиска по cursor.")
+    void getItems_compareResult_whenCursor() {
+        ItemDto itemDtoOne = itemController.add(USER_ID_ONE, itemDtoTestOne);
+        ItemDto itemDtoTwo = itemController.add(USER_ID_ONE, itemDtoTestTwo);
+
+        ResponseEntity<List<ItemDto>> first = itemController.getItems(USER_ID_ONE, FROM, 1, null);
+        String cursor = first.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER);
+        List<ItemDto> second = itemController.getItems(USER_ID_ONE, FROM, 1, cursor).getBody();
+        ResponseEntity<List<ItemDto>> firstFound = itemController.searchItems(USER_ID_ONE, "TeS", null, null, false, null, null, null, FROM, 1, null);
+        String searchCursor = firstFound.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER);
+        List<ItemDto> secondFound = itemController.searchItems(USER_ID_ONE, "TeS", null, null, false, null, null, null, FROM, 1, searchCursor).getBody();
+
+        assertEquals(List.of(itemDtoOne), first.getBody(), "Первая страница.");
+        assertEquals(List.of(itemDtoTwo), second, "Вторая страница.");
+        assertEquals(itemDtoOne.getId(), firstFound.getBody().get(0).getId(), "Первая страница поиска.");
+        assertEquals(itemDtoTwo.getId(), secondFound.get(0).getId(), "Вторая страница поиска.");
+        assertThrows(ValidationException.class, () -> itemController.searchItems(USER_ID_ONE, "TeS", null, null, false,
+                null, null, null, FROM, 1, cursor), "Cursor списка вещей не подходит для поиска.");
+    }
+
     @Test
     @DisplayName("Проверяем метод GET(id) контроллера item.")
     void getItem_compareResult_whenCorrect() {
@@ -146,16 +183,120 @@ public class ItemIntegrationTest {
     @DisplayName("Проверяем метод GET(search) контроллера item.")
     void searchItems_compareResult_whenCorrect() {
         ItemDto itemDtoOne = itemController.add(USER_ID_ONE, itemDtoTestOne);
-        List<ItemDto> dtosOne = itemController.searchItems(USER_ID_ONE, "TeS", FROM, SIZE);
+        List<ItemDto> dtosOne = itemController.searchItems(USER_ID_ONE, "TeS", null, null, false, null, null, null, FROM, SIZE, null).getBody();
 
         assertEquals(1, dtosOne.size(), "Размер списка должен равняться 1.");
-        assertEquals(itemDtoOne, dtosOne.get(0), "Размер списка должен равняться 1.");
+        assertEquals(itemDtoOne.getId(), dtosOne.get(0).getId(), "Размер списка должен равняться 1.");
+        assertNotNull(dtosOne.get(0).getScore(), "В результате поиска должна быть релевантность.");
 
         ItemDto itemDtoTwo = itemController.add(USER_ID_ONE, itemDtoTestTwo);
-        List<ItemDto> dtosTwo = itemController.searchItems(USER_ID_ONE, "TeS", FROM, SIZE);
+        List<ItemDto> dtosTwo = itemController.searchItems(USER_ID_ONE, "TeS", null, null, false, null, null, null, FROM, SIZE, null).getBody();
 
         assertEquals(2, dtosTwo.size(), "Размер списка должен равняться 2.");
-        assertEquals(itemDtoOne, dtosOne.get(0), "Размер списка должен равняться 1.");
-        assertEquals(itemDtoTwo, dtosTwo.get(1), "Размер списка должен равняться 1.");
+        assertEquals(itemDtoTwo.getId(), dtosTwo.get(1).getId(), "Размер списка должен равняться 1.");
+    }
+
+    @Test
+    @DisplayName("Проверяем поиск вещей, свободных в заданный период.")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    void searchItems_excludeBookedItems_whenPeriodSet() {
+        ItemDto itemDtoOne = itemController.add(USER_ID_ONE, itemDtoTestOne);
+        ItemDto itemDtoTwo = itemController.add(USER_ID_ONE, itemDtoTestTwo);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        bookingController.createBooking(USER_ID_TWO, BookingDto.builder()
+                .itemId(itemDtoOne.getId())
+                .start(start)
+                .end(end)
+                .build());
+
+        List<ItemDto> during = itemController.searchItems(USER_ID_ONE, "TeS", start.plusHours(1), end, false, null, null, null, FROM, SIZE, null).getBody();
+        List<ItemDto> after = itemController.searchItems(USER_ID_ONE, "TeS", end, end.plusDays(1), false, null, null, null, FROM, SIZE, null).getBody();
+
+        assertEquals(List.of(itemDtoTwo.getId()), during.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Забронированная вещь не должна попадать в поиск.");
+        assertEquals(2, after.size(), "После окончания бронирования вещь снова свободна.");
+    }
+
+    @Test
+    @DisplayName("Проверяем превью и постраничный вывод комментариев вещи.")
+    void getComments_compareResult_whenManyComments() {
+        ItemDto itemDto = itemController.add(USER_ID_ONE, itemDtoTestOne);
+        Item item = itemRepository.findById(itemDto.getId()).orElseThrow();
+        User author = userRepository.findById(USER_ID_TWO).orElseThrow();
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 12; i++) {
+            commentRepository.save(Comment.builder().item(item).author(author).text("text" + i)
+                    .created(created.plusMinutes(i)).build());
+        }
+
+        ItemDto found = itemController.getItem(USER_ID_ONE, itemDto.getId());
+        ResponseEntity<List<CommentDto>> first = itemController.getComments(USER_ID_ONE, itemDto.getId(), 5, null);
+        ResponseEntity<List<CommentDto>> second = itemController.getComments(USER_ID_ONE, itemDto.getId(), 5,
+                first.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER));
+        ResponseEntity<List<CommentDto>> third = itemController.getComments(USER_ID_ONE, itemDto.getId(), 5,
+                second.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER));
+
+        assertEquals(ItemServiceImpl.COMMENTS_PREVIEW_SIZE, found.getComments().size(), "В вещь встраиваются все комментарии.");
+        assertEquals(12L, found.getCommentsCount(), "Неверное число комментариев.");
+        assertEquals("text11", found.getComments().get(0).getText(), "Первым должен быть новейший комментарий.");
+        assertEquals("TestName2", found.getComments().get(0).getAuthorName(), "Неверный автор комментария.");
+        assertEquals(found.getComments().subList(0, 5), first.getBody(), "Первая страница комментариев.");
+        assertEquals(found.getComments().subList(5, 10), second.getBody(), "Вторая страница комментариев.");
+        assertEquals(2, third.getBody().size(), "Последняя страница комментариев.");
+        assertNull(third.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER), "После последней страницы нет cursor.");
+    }
+
+    @Test
+    @DisplayName("Проверяем поиск вещей рядом с точкой.")
+    void searchItems_orderByDistance_whenCenterSet() {
+        ItemDto far = itemController.add(USER_ID_ONE, ItemDto.builder().name("Дрель").description("дальняя")
+                .available(true).latitude(55.80).longitude(37.70).build());
+        ItemDto near = itemController.add(USER_ID_ONE, ItemDto.builder().name("Дрель").description("ближняя")
+                .available(true).latitude(55.751).longitude(37.618).build());
+        itemController.add(USER_ID_ONE, ItemDto.builder().name("Пила").description("рядом")
+                .available(true).latitude(55.7505).longitude(37.6175).build());
+        itemController.add(USER_ID_ONE, itemDtoTestOne);
+
+        List<ItemDto> drills = itemController.searchItems(USER_ID_ONE, "дрель", null, null, false,
+                55.75, 37.62, 20.0, FROM, SIZE, null).getBody();
+        List<ItemDto> nearest = itemController.searchItems(USER_ID_ONE, "", null, null, false,
+                55.75, 37.62, 1.0, FROM, SIZE, null).getBody();
+        itemController.update(USER_ID_ONE, far.getId(), ItemDto.builder().latitude(55.7501).longitude(37.6201).build());
+        List<ItemDto> moved = itemController.searchItems(USER_ID_ONE, "дрель", null, null, false,
+                55.75, 37.62, 20.0, FROM, SIZE, null).getBody();
+
+        assertEquals(List.of(near.getId(), far.getId()), drills.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Вещи должны идти по возрастанию расстояния.");
+        assertTrue(drills.get(0).getDistance() < drills.get(1).getDistance(), "Неверное расстояние.");
+        assertEquals(2, nearest.size(), "В радиус 1 км попадают две вещи, вещь без координат не ищется.");
+        assertEquals(far.getId(), moved.get(0).getId(), "Перемещённая вещь должна стать ближайшей.");
+    }
+
+    @Test
+    @DisplayName("Проверяем, что вещи удалённого владельца пропадают из поиска, подсказок и поиска рядом.")
+    void searchItems_skipItemsOfDeletedOwner_whenOwnerDeleted() {
+        itemController.add(USER_ID_ONE, ItemDto.builder().name("Дрель ударная").description("первая")
+                .available(true).latitude(55.751).longitude(37.618).build());
+        itemController.add(USER_ID_ONE, ItemDto.builder().name("Дрель аккумуляторная").description("вторая")
+                .available(true).latitude(55.752).longitude(37.619).build());
+        ItemDto kept = itemController.add(USER_ID_TWO, ItemDto.builder().name("Дрель").description("оставшаяся")
+                .available(true).latitude(55.753).longitude(37.620).build());
+        assertEquals(3, itemController.searchItems(USER_ID_TWO, "дрель", null, null, false, null, null, null, FROM, SIZE, null)
+                .getBody().size(), "Перед удалением поиск должен находить вещи обоих владельцев.");
+
+        userController.deleteUser(USER_ID_ONE);
+
+        ResponseEntity<List<ItemDto>> found = itemController.searchItems(USER_ID_TWO, "дрель", null, null, false,
+                null, null, null, FROM, 1, null);
+        List<ItemDto> nearby = itemController.searchItems(USER_ID_TWO, "", null, null, false,
+                55.75, 37.62, 20.0, FROM, SIZE, null).getBody();
+
+        assertEquals(List.of(kept.getId()), found.getBody().stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Вещи удалённого владельца не должны находиться.");
+        assertNotNull(found.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER), "Полная страница должна отдавать cursor.");
+        assertEquals(List.of("Дрель"), itemController.suggest(USER_ID_TWO, "дре", SIZE), "Подсказка должна остаться от оставшейся вещи.");
+        assertEquals(List.of(kept.getId()), nearby.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Поиск рядом не должен находить вещи удалённого владельца.");
     }
 }
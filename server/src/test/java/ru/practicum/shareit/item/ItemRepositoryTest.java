@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -19,8 +21,8 @@ class ItemRepositoryTest {
     @Test
     @DisplayName("Сохранение вещи")
     void saveItem_compareResult_whenObjectCorrect() {
-        Item item = Item.builder().id(7L).name("text").description("text").available(true).build();
-        Item item2 = Item.builder().id(7L).name("qqq").description("asd").available(true).build();
+        Item item = Item.builder().name("text").description("text").available(true).build();
+        Item item2 = Item.builder().name("qqq").description("asd").available(true).build();
 
         Item item1 = itemRepository.save(item);
         itemRepository.save(item2);
@@ -31,4 +33,21 @@ class ItemRepositoryTest {
         assertEquals(1, items.size(), "возвращает не 1 нужный запрос");
         assertEquals(item1, items.get(0), "возвращает не нужный запрос");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Изменённые вещи читаются по порядку после (updatedAt, id)")
+    void findChangedAfter_compareResult_whenItemsSaved() {
+        Item first = itemRepository.saveAndFlush(Item.builder().name("text").description("text").available(true).build());
+        Item second = itemRepository.saveAndFlush(Item.builder().name("qqq").description("asd").available(false).build());
+
+        List<ItemChangeView> all = itemRepository.findChangedAfter(LocalDateTime.of(2000, 1, 1, 0, 0), 0, 10);
+        List<ItemChangeView> afterFirst = itemRepository.findChangedAfter(first.getUpdatedAt(), first.getId(), 10);
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                all.stream().map(ItemChangeView::getId).collect(Collectors.toList()), "не те изменённые вещи");
+        assertFalse(all.get(0).isDeleted(), "вещь помечена удалённой");
+        assertFalse(all.get(1).isAvailable(), "недоступная вещь прочитана доступной");
+        assertEquals(List.of(second.getId()),
+                afterFirst.stream().map(ItemChangeView::getId).collect(Collectors.toList()), "не те вещи после первой");
+    }
+}
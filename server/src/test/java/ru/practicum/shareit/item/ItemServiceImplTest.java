@@ -1,13 +1,16 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingItemDto;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.*;
@@ -15,17 +18,34 @@ import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.CommentView;
+import ru.practicum.shareit.item.geo.GeoPoint;
+import ru.practicum.shareit.item.geo.ItemGeoIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.SearchHit;
+import ru.practicum.shareit.item.trending.TrendingTracker;
+import ru.practicum.shareit.request.ItemRequestFeed;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.Cursor;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemServiceImplTest {
@@ -39,6 +59,21 @@ class ItemServiceImplTest {
 
     private final CommentRepository commentRepository = mock(CommentRepository.class);
 
+    private final BookingIntervalIndex bookingIntervalIndex = mock(BookingIntervalIndex.class);
+
+    private final ItemSearchIndex itemSearchIndex = mock(ItemSearchIndex.class);
+
+    private final ItemSuggestIndex itemSuggestIndex = mock(ItemSuggestIndex.class);
+
+    private final ItemSearchCache itemSearchCache = new ItemSearchCache(100, new SimpleMeterRegistry());
+
+    private final TrendingTracker trendingTracker = mock(TrendingTracker.class);
+
+    private final ItemCardCache itemCardCache = new ItemCardCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    private final ItemGeoIndex itemGeoIndex = mock(ItemGeoIndex.class);
+    private final ItemRequestFeed itemRequestFeed = mock(ItemRequestFeed.class);
+
     private ItemMapper itemMapper = mock(ItemMapper.class);
 
     private final BookingMapper bookingMapper = new BookingMapper();
@@ -47,7 +82,9 @@ class ItemServiceImplTest {
 
     private ItemService service =
             new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                    commentRepository, commentMapper, bookingMapper, itemRequestService);
+                    commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                    itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
 
     @Test
     @DisplayName("Не существующий пользователь")
@@ -102,7 +139,7 @@ class ItemServiceImplTest {
     @DisplayName("Поиск по словам вещей from -1")
     void searchItemText_throwIllegalArgumentException_whenFromNegative() {
         Throwable thrown = assertThrows(IllegalArgumentException.class, () -> {
-            service.searchText(1, "text", -1, 1);
+            service.searchText(1, "text", null, null, false, -1, 1);
         });
 
         assertNotNull(thrown.getMessage());
@@ -112,7 +149,7 @@ class ItemServiceImplTest {
     @DisplayName("Поиск по словам вещей пагинация -1")
     void searchItemText_throwIllegalArgumentException_whenSizeNegative() {
         Throwable thrown = assertThrows(IllegalArgumentException.class, () -> {
-            service.searchText(1, "text", 0, -1);
+            service.searchText(1, "text", null, null, false, 0, -1);
         });
 
         assertNotNull(thrown.getMessage());
@@ -122,7 +159,7 @@ class ItemServiceImplTest {
     @DisplayName("Поиск по словам вещей пагинация 0")
     void searchItem_throwIllegalArgumentException_whenTextSizeZero() {
         Throwable thrown = assertThrows(IllegalArgumentException.class, () -> {
-            service.searchText(1, "text", 0, 0);
+            service.searchText(1, "text", null, null, false, 0, 0);
         });
 
         assertNotNull(thrown.getMessage());
@@ -131,7 +168,7 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Поиск по словам вещей")
     void searchItemText_compareResult_whenStrIsEmpty() {
-        List<ItemDto> items = service.searchText(1, "", 0, 1);
+        List<ItemDto> items = service.searchText(1, "", null, null, false, 0, 1);
 
         assertEquals(0, items.size(), "Не возвращает пустой список при пустом тексте");
     }
@@ -176,7 +213,9 @@ class ItemServiceImplTest {
     void updateItem_compareResult_whenNameDescriptionAndAvailable() {
         itemMapper = new ItemMapper();
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
         when(userService.getUser(anyLong())).thenReturn(User.builder().id(1L).build());
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(Item.builder()
                 .owner(User.builder().id(1L).build())
@@ -194,7 +233,9 @@ class ItemServiceImplTest {
 
         itemMapper = mock(ItemMapper.class);
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
     }
 
     @Test
@@ -202,7 +243,9 @@ class ItemServiceImplTest {
     void updateItem_compareResult_whenName() {
         itemMapper = new ItemMapper();
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
         when(userService.getUser(anyLong())).thenReturn(User.builder().id(1L).build());
         Item itemRepository = Item.builder()
                 .owner(User.builder().id(1L).build())
@@ -221,7 +264,9 @@ class ItemServiceImplTest {
 
         itemMapper = mock(ItemMapper.class);
         service = new ItemServiceImpl(userService, this.itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
     }
 
     @Test
@@ -229,7 +274,9 @@ class ItemServiceImplTest {
     void updateItem_compareResult_whenDescription() {
         itemMapper = new ItemMapper();
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
         when(userService.getUser(anyLong())).thenReturn(User.builder().id(1L).build());
         Item itemRepository = Item.builder()
                 .owner(User.builder().id(1L).build())
@@ -248,7 +295,9 @@ class ItemServiceImplTest {
 
         itemMapper = mock(ItemMapper.class);
         service = new ItemServiceImpl(userService, this.itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
     }
 
     @Test
@@ -256,7 +305,9 @@ class ItemServiceImplTest {
     void updateItem_compareResult_whenAvailable() {
         itemMapper = new ItemMapper();
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
         when(userService.getUser(anyLong())).thenReturn(User.builder().id(1L).build());
         Item itemRepository = Item.builder()
                 .owner(User.builder().id(1L).build())
@@ -275,7 +326,9 @@ class ItemServiceImplTest {
 
         itemMapper = mock(ItemMapper.class);
         service = new ItemServiceImpl(userService, this.itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
     }
 
     @Test
@@ -307,11 +360,127 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Поиск вещи по слову")
     void searchText_compareResult_CorrectWork() {
-        when(itemRepository.search(anyString(), any())).thenReturn(Page.empty());
+        Item item = Item.builder().id(2L).name("text").description("text").available(true).build();
+        when(itemSearchIndex.searchHits(eq("text"), any(), eq(false))).thenReturn(List.of(new SearchHit(2L, 2.0), new SearchHit(1L, 1.0)));
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenReturn(ItemDto.builder().id(2L).build());
 
-        List<ItemDto> itemDtos = service.searchText(1, "text", 0, 1);
+        List<ItemDto> itemDtos = service.searchText(1, "text", null, null, false, 0, 1);
 
-        assertEquals(0, itemDtos.size(), "не вызывается поиск по тексту");
+        assertEquals(1, itemDtos.size(), "не вызывается поиск по тексту");
+        assertEquals(2L, itemDtos.get(0).getId(), "не сохраняется порядок релевантности");
+        assertEquals(2.0, itemDtos.get(0).getScore(), "не заполняется релевантность");
+    }
+
+    @Test
+    @DisplayName("Поиск не отдаёт вещь, которая в базе уже недоступна, пока индекс узла не обновился")
+    void searchText_skipUnavailable_whenIndexStale() {
+        Item item = Item.builder().id(2L).name("text").description("text").available(false).build();
+        when(itemSearchIndex.searchHits(eq("text"), any(), eq(false))).thenReturn(List.of(new SearchHit(2L, 2.0)));
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(item));
+
+        List<ItemDto> itemDtos = service.searchText(1, "text", null, null, false, 0, 1);
+
+        assertTrue(itemDtos.isEmpty(), "отдана недоступная вещь");
+    }
+
+    @Test
+    @DisplayName("Поиск по cursor продолжается после пары (релевантность, id), даже если вещи из cursor уже нет")
+    void searchText_resumeAfterScore_whenCursorItemGone() {
+        itemMapper = new ItemMapper();
+        service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
+        when(itemSearchIndex.searchHits(eq("text"), any(), eq(false))).thenReturn(List.of(
+                new SearchHit(5L, 3.0), new SearchHit(7L, 1.0), new SearchHit(8L, 1.0)));
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                items.add(Item.builder().id(id).name("text").description("text").available(true).build());
+            }
+            return items;
+        });
+
+        List<ItemDto> afterGone = service.searchText(1, "text", null, null, false, Cursor.of(2.0, 6L), 10);
+        List<ItemDto> afterTie = service.searchText(1, "text", null, null, false, Cursor.of(1.0, 7L), 10);
+
+        assertEquals(List.of(7L, 8L), afterGone.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Поиск должен продолжиться с первой вещи ниже cursor");
+        assertEquals(List.of(8L), afterTie.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "При равной релевантности поиск продолжается по id");
+        assertThrows(ValidationException.class, () -> service.searchText(1, "text", null, null, false, Cursor.of(6L), 10),
+                "Cursor без релевантности не подходит для поиска");
+    }
+
+    @Test
+    @DisplayName("Поиск вещей рядом: без текста - ближайшие, с текстом - найденные по расстоянию")
+    void searchNearby_orderByDistance_whenCenterSet() {
+        GeoPoint center = new GeoPoint(55.75, 37.62);
+        Item item = Item.builder().id(2L).name("text").description("text").available(true).build();
+        when(itemGeoIndex.nearest(eq(center), eq(5.0), any(), eq(1))).thenReturn(List.of(2L));
+        when(itemSearchIndex.search(eq("text"), any(), eq(false))).thenReturn(List.of(1L, 2L));
+        when(itemGeoIndex.sortByDistance(List.of(1L, 2L), center, 5)).thenReturn(List.of(2L));
+        when(itemGeoIndex.distanceKm(2L, center)).thenReturn(1.5);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenAnswer(invocation -> ItemDto.builder().id(2L).build());
+
+        List<ItemDto> nearest = service.searchNearby(1, " ", center, 5, null, null, false, 0, 1);
+        List<ItemDto> found = service.searchNearby(1, "text", center, 5, null, null, false, 0, 10);
+
+        assertEquals(2L, nearest.get(0).getId(), "Не используется поиск ближайших");
+        assertEquals(1.5, nearest.get(0).getDistance(), "Не заполняется расстояние");
+        assertEquals(1, found.size(), "Не учитывается радиус для текстового поиска");
+        assertThrows(ValidationException.class, () -> service.searchNearby(1, "", center, 0, null, null, false, 0, 1),
+                "Принимает нулевой радиус");
+        assertThrows(ValidationException.class, () -> service.searchNearby(1, "", new GeoPoint(91, 0), 5, null, null,
+                false, 0, 1), "Принимает некорректную широту");
+    }
+
+    @Test
+    @DisplayName("Координаты вещи задаются парой")
+    void addItem_throwValidationException_whenOnlyLatitude() {
+        ItemDto itemDto = ItemDto.builder().name("name").description("desc").available(true).latitude(55.0).build();
+
+        assertThrows(ValidationException.class, () -> service.add(1, itemDto), "Принимает половину координат");
+    }
+
+    @Test
+    @DisplayName("Поиск вещи по слову, свободной в заданный период")
+    void searchText_excludeBusyItems_whenPeriodSet() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        when(bookingIntervalIndex.isBusy(1L, start, end)).thenReturn(true);
+        when(itemSearchIndex.searchHits(eq("text"), any(), eq(false))).thenAnswer(invocation -> {
+            Predicate<Long> busy = invocation.getArgument(1);
+            return Stream.of(1L, 2L).filter(busy.negate()).map(id -> new SearchHit(id, 1.0)).collect(Collectors.toList());
+        });
+
+        List<ItemDto> itemDtos = service.searchText(1, "text", start, end, false, 0, 1);
+
+        assertEquals(0, itemDtos.size(), "не вызывается поиск свободных вещей");
+        verify(bookingIntervalIndex).isBusy(2L, start, end);
+        verify(bookingIntervalIndex, never()).isBusy(eq(3L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Поиск вещи при неполном периоде")
+    void searchText_throwValidationException_whenPeriodIncomplete() {
+        Throwable thrown = assertThrows(ValidationException.class, () -> {
+            service.searchText(1, "text", LocalDateTime.now(), null, false, 0, 1);
+        });
+
+        assertNotNull(thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Поиск вещи при конце периода раньше начала")
+    void searchText_throwValidationException_whenEndBeforeStart() {
+        Throwable thrown = assertThrows(ValidationException.class, () -> {
+            service.searchText(1, "text", LocalDateTime.now().plusDays(1), LocalDateTime.now(), false, 0, 1);
+        });
+
+        assertNotNull(thrown.getMessage());
     }
 
     @Test
@@ -331,17 +500,37 @@ class ItemServiceImplTest {
                 .owner(User.builder().id(1L).build()).build()));
         when(itemMapper.toItemDto(any())).thenReturn(ItemDto.builder().id(1L)
                 .owner(User.builder().id(1L).build()).build());
-        when(bookingRepository.findFirst1ByItemIdAndStartBeforeOrderByStartDesc(anyLong(), any()))
-                .thenReturn(Optional.empty());
-        when(bookingRepository.findFirst1ByItemIdAndStartAfterAndStatusNotLikeOrderByStartAsc(anyLong(), any(), any()))
-                .thenReturn(Optional.empty());
-        when(commentRepository.findAllByItemId(anyLong())).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextByItemId(anyLong(), any(), any())).thenReturn(List.of());
+        when(commentRepository.findPreviewByItemIdIn(any(), anyInt())).thenReturn(List.of());
 
         ItemDto itemDtos = service.getById(1, 1);
 
         assertNull(itemDtos.getNextBooking(), "Booking не присваивается");
         assertNull(itemDtos.getLastBooking(), "Booking не присваивается");
         assertEquals(0, itemDtos.getComments().size(), "комментарии не присваиваются");
+        assertEquals(0L, itemDtos.getCommentsCount(), "Неверное число комментариев");
+    }
+
+    @Test
+    @DisplayName("Последнее и следующее бронирование владельцу вещи")
+    void itemGetById_splitLastAndNext_whenOwner() {
+        User booker = User.builder().id(2L).build();
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(Item.builder()
+                .owner(User.builder().id(1L).build()).build()));
+        when(itemMapper.toItemDto(any())).thenReturn(ItemDto.builder().id(1L)
+                .owner(User.builder().id(1L).build()).build());
+        when(bookingRepository.findLastAndNextByItemId(anyLong(), any(), any())).thenReturn(List.of(
+                Booking.builder().id(5L).booker(booker).start(LocalDateTime.now().plusDays(1)).build(),
+                Booking.builder().id(3L).booker(booker).start(LocalDateTime.now().minusDays(1)).build()));
+        when(commentRepository.findPreviewByItemIdIn(any(), anyInt()))
+                .thenReturn(List.of(commentView(1L, 1L, "text", 25L)));
+
+        ItemDto itemDto = service.getById(1, 1);
+
+        assertEquals(3L, itemDto.getLastBooking().getId(), "Неверное последнее бронирование");
+        assertEquals(5L, itemDto.getNextBooking().getId(), "Неверное следующее бронирование");
+        assertEquals(1, itemDto.getComments().size(), "комментарии не присваиваются");
+        assertEquals(25L, itemDto.getCommentsCount(), "Неверное число комментариев");
     }
 
     @Test
@@ -349,36 +538,19 @@ class ItemServiceImplTest {
     void getAllItem_compareResult_whenManyBooking() {
         itemMapper = new ItemMapper();
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
         Item item = Item.builder().id(1L).name("first").description("desc").build();
         Item item1 = Item.builder().id(2L).name("second").description("desc1").build();
         Item item2 = Item.builder().id(3L).name("free").description("desc2").build();
         when(itemRepository.findByOwnerId(anyLong(), any())).thenReturn(new PageImpl<>(List.of(item2, item, item1)));
 
-        Booking bookingLast = Booking.builder().id(1L).end(LocalDateTime.now().minusDays(2)).start(LocalDateTime.now().minusDays(3))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        Booking bookingLast1 = Booking.builder().id(2L).end(LocalDateTime.now().minusHours(1)).start(LocalDateTime.now().minusDays(1))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        Booking bookingLast2 = Booking.builder().id(3L).end(LocalDateTime.now().minusMonths(1)).start(LocalDateTime.now().minusDays(5))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        when(bookingRepository.findByItemInAndStartBeforeOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingLast1, bookingLast, bookingLast2));
-
-        Booking bookingNext = Booking.builder().id(1L).end(LocalDateTime.now().plusDays(2)).start(LocalDateTime.now().plusDays(3))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        Booking bookingNext1 = Booking.builder().id(3L).end(LocalDateTime.now().plusHours(1)).start(LocalDateTime.now().plusDays(1))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        Booking bookingNext2 = Booking.builder().id(2L).end(LocalDateTime.now().plusMonths(1)).start(LocalDateTime.now().plusDays(5))
-                .item(item2).booker(User.builder().id(1L).build()).build();
-        when(bookingRepository.findByItemInAndStartAfterAndStatusNotLikeOrderByStartAsc(any(), any(), any()))
-                .thenReturn(List.of(bookingNext1, bookingNext, bookingNext2));
-
-        when(commentRepository.findByItemIn(any(), any())).thenReturn(List.of(Comment.builder()
-                .id(1L)
-                .text("text")
-                .item(item)
-                .author(User.builder().name("Name").build())
-                .build()));
+        when(bookingRepository.findLastAndNextByItemIdIn(any(), any()))
+                .thenReturn(List.of(itemBookingView(2L, 3L, 1L, true), itemBookingView(3L, 3L, 1L, false)));
+
+        when(commentRepository.findPreviewByItemIdIn(any(), anyInt()))
+                .thenReturn(List.of(commentView(1L, 1L, "text", 1L)));
 
         List<ItemDto> itemDtos = service.getAll(1, 0, 5);
 
@@ -391,11 +563,97 @@ class ItemServiceImplTest {
         assertNull(itemDtos.get(1).getNextBooking(), "Сохроняет когда должен быть null");
         assertNull(itemDtos.get(1).getLastBooking(), "Сохроняет когда должен быть null");
         assertEquals(commentDto, itemDtos.get(1).getComments().get(0), "Сохроняет когда должен быть null");
+        assertEquals(1L, itemDtos.get(1).getCommentsCount(), "Неверное число комментариев");
+        assertEquals(0L, itemDtos.get(0).getCommentsCount(), "Неверное число комментариев");
         assertNull(itemDtos.get(2).getNextBooking(), "Сохроняет когда должен быть null");
         assertNull(itemDtos.get(2).getLastBooking(), "Сохроняет когда должен быть null");
 
         itemMapper = mock(ItemMapper.class);
         service = new ItemServiceImpl(userService, itemRepository, itemMapper, bookingRepository,
-                commentRepository, commentMapper, bookingMapper, itemRequestService);
+                commentRepository, commentMapper, bookingMapper, itemRequestService, bookingIntervalIndex,
+                itemSearchIndex, itemSuggestIndex, itemSearchCache, trendingTracker, itemCardCache, itemGeoIndex,
+                itemRequestFeed);
+    }
+
+    private ItemBookingView itemBookingView(Long id, Long itemId, Long bookerId, boolean last) {
+        return new ItemBookingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Boolean getLast() {
+                return last;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Страница комментариев несуществующей вещи")
+    void getComments_throwException_whenItemNotFound() {
+        when(itemRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(ParameterNotFoundException.class, () -> service.getComments(1, 1, null, 10),
+                "Не выбрасывает исключение");
+    }
+
+    @Test
+    @DisplayName("Страница комментариев после cursor")
+    void getComments_useCursor_whenCursorPresent() {
+        LocalDateTime created = LocalDateTime.now();
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(commentRepository.findDtosByItemIdBeforeCursor(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(CommentDto.builder().id(1L).text("text").build()));
+
+        List<CommentDto> comments = service.getComments(1, 1, Cursor.of(created, 2L), 10);
+
+        assertEquals(1, comments.size(), "Не возвращает страницу комментариев");
+        assertThrows(ValidationException.class, () -> service.getComments(1, 1, Cursor.of(2L), 10),
+                "Принимает cursor без времени");
+    }
+
+    private CommentView commentView(Long id, Long itemId, String text, Long total) {
+        return new CommentView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+
+            @Override
+            public String getAuthorName() {
+                return "Name";
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return null;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * k ближайших вещей среди миллиона точек.
+ * Запуск: mvn test -pl server -Dtest=ItemGeoIndexBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemGeoIndexBenchmarkTest {
+    private static final int ITEMS = 1_000_000;
+    private static final int QUERIES = 10_000;
+    private static final int K = 10;
+
+    @Test
+    @DisplayName("Замер поиска ближайших вещей")
+    void nearest_measure_whenMillionItems() {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(Item.builder().id(id).available(true)
+                    .latitude(50 + random.nextDouble() * 10).longitude(30 + random.nextDouble() * 20).build());
+        }
+        ItemGeoIndex index = new ItemGeoIndex(0.05);
+        items.forEach(index::index);
+
+        List<GeoPoint> centers = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            centers.add(new GeoPoint(50 + random.nextDouble() * 10, 30 + random.nextDouble() * 20));
+        }
+        for (GeoPoint center : centers) {
+            index.nearest(center, 100, id -> false, K);
+        }
+        long started = System.nanoTime();
+        int found = 0;
+        for (GeoPoint center : centers) {
+            found += index.nearest(center, 100, id -> false, K).size();
+        }
+        double micros = (System.nanoTime() - started) / 1_000.0 / QUERIES;
+
+        System.out.printf("k-nearest (k=%d) over %d items: %.1f us per query%n", K, ITEMS, micros);
+        assertEquals(QUERIES * K, found);
+    }
+}
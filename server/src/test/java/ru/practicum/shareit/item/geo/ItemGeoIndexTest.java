@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemGeoIndexTest {
+    @Test
+    @DisplayName("Ближайшие вещи совпадают с полным перебором, в том числе у линии перемены дат и полюса")
+    void nearest_matchBruteForce_whenRandomPoints() {
+        Random random = new Random(7);
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            GeoPoint around = id % 3 == 0 ? new GeoPoint(55.75, 37.62) : id % 3 == 1 ? new GeoPoint(0, 179.99) : new GeoPoint(89.9, 0);
+            items.add(item(id, around.getLatitude() + random.nextGaussian() * 0.2,
+                    around.getLongitude() + random.nextGaussian() * 0.2, true));
+        }
+        ItemGeoIndex index = new ItemGeoIndex(0.05);
+        items.forEach(index::index);
+
+        for (GeoPoint center : List.of(new GeoPoint(55.7, 37.5), new GeoPoint(0.1, -179.95), new GeoPoint(89.95, 120))) {
+            for (double radius : List.of(1.0, 10.0, 50.0)) {
+                List<Long> expected = items.stream()
+                        .filter(item -> distance(center, item) <= radius)
+                        .sorted(Comparator.<Item>comparingDouble(item -> distance(center, item)).thenComparing(Item::getId))
+                        .map(Item::getId)
+                        .limit(25)
+                        .collect(Collectors.toList());
+
+                assertEquals(expected, index.nearest(center, radius, id -> false, 25),
+                        "Неверные ближайшие вещи для " + center + " в радиусе " + radius);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Недоступные, перемещённые и занятые вещи")
+    void nearest_skipUnavailableAndExcluded_whenIndexUpdated() {
+        ItemGeoIndex index = new ItemGeoIndex(0.05);
+        List.of(
+                item(1L, 55.751, 37.618, true),
+                item(2L, 55.752, 37.619, true),
+                item(3L, 55.753, 37.620, false),
+                item(4L, 55.80, 37.70, true),
+                item(5L, 55.751, 37.618, true)).forEach(index::index);
+        GeoPoint center = new GeoPoint(55.751, 37.618);
+
+        assertEquals(List.of(1L, 5L, 2L, 4L), index.nearest(center, 20, id -> false, 10), "Неверный порядок");
+        assertEquals(List.of(1L, 2L), index.nearest(center, 20, Set.of(5L)::contains, 2), "Не учитываются занятые вещи");
+        assertEquals(List.of(1L, 5L, 2L), index.nearest(center, 1, id -> false, 10), "Не учитывается радиус");
+
+        index.index(item(4L, 55.7511, 37.6181, true));
+        index.index(item(5L, 55.751, 37.618, false));
+
+        assertEquals(List.of(1L, 4L, 2L), index.nearest(center, 20, id -> false, 10), "Не учитывается перемещение");
+        assertEquals(List.of(2L, 1L), index.sortByDistance(List.of(1L, 2L, 3L), new GeoPoint(55.752, 37.619), 5),
+                "Неверная сортировка вещей по расстоянию");
+        assertNull(index.distanceKm(3L, center), "Недоступная вещь не должна быть в сетке");
+    }
+
+    @Test
+    @DisplayName("Расстояние между точками")
+    void distanceKm_compareResult_whenKnownCities() {
+        double moscowToSaintPetersburg = new GeoPoint(55.7558, 37.6173).distanceKm(new GeoPoint(59.9343, 30.3351));
+
+        assertEquals(634, moscowToSaintPetersburg, 5, "Неверное расстояние Москва - Санкт-Петербург");
+        assertEquals(0, new GeoPoint(10, 20).distanceKm(new GeoPoint(10, 20)), 1e-9, "Расстояние до себя не 0");
+    }
+
+    private static double distance(GeoPoint center, Item item) {
+        return center.distanceKm(new GeoPoint(item.getLatitude(), item.getLongitude()));
+    }
+
+    private static Item item(long id, double latitude, double longitude, boolean available) {
+        double normalized = ((longitude + 180) % 360 + 360) % 360 - 180;
+        return Item.builder().id(id).name("item" + id).description("desc").available(available)
+                .latitude(Math.max(-90, Math.min(90, latitude))).longitude(normalized).build();
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Сравнение поиска LIKE по таблице с нечётким поиском по индексу на запросе с опечаткой.
+ * Запуск: mvn test -pl server -Dtest=ItemSearchBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemSearchBenchmarkTest {
+    private static final int ITEMS = 50_000;
+    private static final int BATCH = 1_000;
+    private static final int ROUNDS = 50;
+    private static final String[] WORDS = {
+        "дрель", "перфоратор", "отвёртка", "шуруповёрт", "лестница", "палатка", "велосипед", "самокат",
+        "пила", "лобзик", "болгарка", "рубанок", "молоток", "стремянка", "тележка", "газонокосилка",
+        "аккумуляторная", "электрическая", "ручная", "складная", "туристическая", "детская", "большая", "новая"
+    };
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@bench')");
+        long ownerId = jdbcTemplate.queryForObject("select id from users where email = 'owner@bench'", Long.class);
+
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < ITEMS; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Object[]{ownerId, name, description});
+            if (batch.size() == BATCH) {
+                insertItems(batch);
+                batch.clear();
+            }
+        }
+        insertItems(batch);
+    }
+
+    @Test
+    @DisplayName("LIKE по таблице против нечёткого поиска по индексу")
+    void search_likeVsFuzzyIndex() {
+        ItemSearchIndex index = new ItemSearchIndex(4);
+        itemRepository.findAll().forEach(index::index);
+        entityManager.clear();
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+        for (int i = 0; i < ROUNDS / 5; i++) {
+            like(pageRequest);
+            fuzzy(index);
+        }
+
+        long likeNanos = 0;
+        long fuzzyNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            like(pageRequest);
+            likeNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            fuzzy(index);
+            fuzzyNanos += System.nanoTime() - started;
+        }
+
+        System.out.printf("Items: %d, rounds: %d%n", ITEMS, ROUNDS);
+        System.out.printf("LIKE:        %.2f ms/request%n", likeNanos / 1e6 / ROUNDS);
+        System.out.printf("Fuzzy index: %.2f ms/request%n", fuzzyNanos / 1e6 / ROUNDS);
+    }
+
+    private void like(PageRequest pageRequest) {
+        assertFalse(itemRepository.search("перфоратор", pageRequest).isEmpty());
+        entityManager.clear();
+    }
+
+    private void fuzzy(ItemSearchIndex index) {
+        assertFalse(index.search("пирфоратор", id -> false, true).isEmpty());
+    }
+
+    private void insertItems(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("insert into items (owner_id, name, description, is_available) values (?, ?, ?, true)", batch);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ItemSearchCache cache = new ItemSearchCache(100, meterRegistry);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Повторный запрос берётся из кэша, метрики публикуются")
+    void get_returnCached_whenSameQuery() {
+        load("Дрель", false, 0);
+        load("дрель", false, 0);
+        load("дрель", false, 10);
+
+        assertEquals(2, loads.get(), "Одинаковые запросы должны браться из кэша");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit")
+                .functionCounter().count(), "Нет метрики попаданий");
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "miss")
+                .functionCounter().count(), "Нет метрики промахов");
+    }
+
+    @Test
+    @DisplayName("Изменение вещи сбрасывает только затронутые страницы")
+    void invalidate_removeAffectedPages_whenItemChanged() {
+        load("дрель", false, 0);
+        load("пила", false, 0);
+        load("перфоратор", true, 0);
+
+        cache.invalidate(item(10L, "Лестница", "Складная лестница", true));
+        assertEquals(3, cache.size(), "Неподходящая вещь не должна сбрасывать кэш");
+
+        cache.invalidate(item(11L, "Пилы", "Ручная", true));
+        assertEquals(2, cache.size(), "Должна сброситься страница запроса, под который подходит вещь");
+
+        cache.invalidate(item(12L, "Пирфоратор", "С опечаткой", true));
+        assertEquals(1, cache.size(), "Должна сброситься страница нечёткого запроса");
+
+        cache.invalidate(item(1L, "Дрель", "Стала недоступной", false));
+        assertEquals(0, cache.size(), "Должна сброситься страница, в которой есть вещь");
+    }
+
+    @Test
+    @DisplayName("Сброс кэша не меняет метрики попаданий и промахов")
+    void invalidate_keepStats_whenItemChanged() {
+        load("дрель", false, 0);
+        load("дрель", false, 0);
+
+        cache.invalidate(item(11L, "Пила", "Ручная", true));
+        cache.invalidate(item(12L, "Лестница", "Складная", true));
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit")
+                .functionCounter().count(), "Сброс не должен считаться попаданием");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "miss")
+                .functionCounter().count(), "Сброс не должен считаться промахом");
+    }
+
+    @Test
+    @DisplayName("После изменения вещи страницы запроса листаются без повторов и пропусков")
+    void get_consistentPages_whenItemLeftResult() {
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            items.add(item(id, "Дрель " + id, "Ударная", true));
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), pages(items, 0, 2, 4, 6), "Неверные страницы");
+
+        Item previous = items.remove(0);
+        cache.invalidate(previous, item(1L, "Дрель 1", "Ударная", false));
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L), pages(items, 0, 2, 4), "Вещь, ставшая недоступной, сдвигает все страницы");
+
+        pages(items, 0, 4);
+        previous = items.remove(2);
+        cache.invalidate(previous, item(4L, "Лестница", "Складная", true));
+        assertEquals(List.of(2L, 3L, 5L, 6L, 7L), pages(items, 0, 2, 4),
+                "Вещь из незакэшированной страницы, переставшая подходить, сдвигает следующие страницы");
+    }
+
+    private List<Long> pages(List<Item> items, int... offsets) {
+        List<Long> ids = new ArrayList<>();
+        for (int from : offsets) {
+            cache.get("дрель", false, null, from, 2, () -> items.stream()
+                    .skip(from)
+                    .limit(2)
+                    .map(item -> ItemDto.builder().id(item.getId()).name(item.getName()).build())
+                    .collect(Collectors.toList()))
+                    .forEach(itemDto -> ids.add(itemDto.getId()));
+        }
+        return ids;
+    }
+
+    private void load(String text, boolean fuzzy, int from) {
+        cache.get(text, fuzzy, null, from, 10, () -> {
+            loads.incrementAndGet();
+            return List.of(ItemDto.builder().id(1L).name("Дрель").build());
+        });
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex(3);
+        List.of(
+                item(1L, "Дрель", "Простая дрель"),
+                item(2L, "Аккумуляторная дрель", "Дрель с аккумулятором и набором свёрл"),
+                item(3L, "Отвёртка", "Аккумуляторная отвёртка"),
+                item(4L, "Drill", "Cordless drills for home")).forEach(index::index);
+    }
+
+    @Test
+    @DisplayName("Поиск учитывает регистр, окончания и начало слова")
+    void search_matchTerms_whenDifferentForms() {
+        assertEquals(Set.of(1L, 2L), Set.copyOf(index.search("дРелЬ", id -> false)), "Не найдена дрель");
+        assertEquals(Set.of(1L, 2L), Set.copyOf(index.search("дрели", id -> false)), "Не учитываются окончания");
+        assertEquals(List.of(4L), index.search("DRILLS", id -> false), "Не учитываются английские окончания");
+        assertEquals(List.of(3L), index.search("отве", id -> false), "Не найдено по началу слова");
+        assertEquals(List.of(2L), index.search("аккумуляторная дрель", id -> false), "Должны найтись все слова запроса");
+        assertTrue(index.search("пила", id -> false).isEmpty(), "Найдено лишнее");
+    }
+
+    @Test
+    @DisplayName("Чаще встречающийся в названии терм поднимает вещь выше")
+    void search_rankByRelevance_whenSeveralMatches() {
+        assertEquals(List.of(1L, 2L), index.search("дрель", id -> false), "Короткий документ должен быть выше");
+        assertEquals(List.of(2L, 3L), index.search("аккумулятор", id -> false), "Совпадение в названии должно быть выше");
+    }
+
+    @Test
+    @DisplayName("Индекс обновляется при изменении вещи и её доступности")
+    void index_updateDocument_whenItemChanged() {
+        Item item = item(1L, "Перфоратор", "Перфоратор");
+        index.index(item);
+        assertEquals(List.of(2L), index.search("дрель", id -> false), "Старые термы должны удаляться");
+        assertEquals(List.of(1L), index.search("перфоратор", id -> false), "Новые термы должны добавляться");
+
+        item.setAvailable(false);
+        index.index(item);
+        assertTrue(index.search("перфоратор", id -> false).isEmpty(), "Недоступная вещь не должна находиться");
+        assertEquals(3, index.size(), "Недоступная вещь должна удаляться из индекса");
+    }
+
+    @Test
+    @DisplayName("Нечёткий поиск находит термы с опечатками")
+    void search_matchTypos_whenFuzzy() {
+        assertTrue(index.search("дрнль", id -> false).isEmpty(), "Без нечёткого режима опечатки не исправляются");
+        assertEquals(Set.of(1L, 2L), Set.copyOf(index.search("дрнль", id -> false, true)), "Не исправлена опечатка");
+        assertEquals(List.of(3L), index.search("атвиртка", id -> false, true), "Не исправлены две опечатки");
+        assertEquals(List.of(4L), index.search("dril", id -> false, true), "Не найдено по началу слова");
+        assertTrue(index.search("дом", id -> false, true).isEmpty(), "В коротких термах опечатки не исправляются");
+    }
+
+    @Test
+    @DisplayName("Исключённые вещи не попадают в результат")
+    void search_skipExcluded_whenBusy() {
+        assertEquals(List.of(2L), index.search("дрель", Set.of(1L)::contains), "Занятая вещь не должна находиться");
+    }
+
+    private static Item item(long id, String name, String description) {
+        return Item.builder().id(id).name(name).description(description).available(true).build();
+    }
+}
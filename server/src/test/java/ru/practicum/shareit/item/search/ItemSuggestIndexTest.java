@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSuggestIndexTest {
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSuggestIndex();
+        List.of(
+                item(1L, "Дрель"),
+                item(2L, "Дрель"),
+                item(3L, "Аккумуляторная дрель"),
+                item(4L, "Дрессировочный свисток"),
+                item(5L, "Ёлочная гирлянда")).forEach(index::index);
+    }
+
+    @Test
+    @DisplayName("Подсказки по началу любого слова, частые названия выше")
+    void suggest_compareResult_whenPrefixMatches() {
+        assertEquals(List.of("Дрель", "Аккумуляторная дрель", "Дрессировочный свисток"), index.suggest("ДРЕ", 10),
+                "Неверные подсказки");
+        assertEquals(List.of("Дрель"), index.suggest("дре", 1), "Не учитывается размер");
+        assertEquals(List.of("Аккумуляторная дрель"), index.suggest("аккумуляторная  др", 10), "Не учитываются пробелы");
+        assertEquals(List.of("Ёлочная гирлянда"), index.suggest("елоч", 10), "Не учитывается ё");
+        assertTrue(index.suggest("пила", 10).isEmpty(), "Найдено лишнее");
+    }
+
+    @Test
+    @DisplayName("Подсказки обновляются при изменении названия и доступности")
+    void index_updateSuggestions_whenItemChanged() {
+        index.index(item(1L, "Перфоратор"));
+        Item hidden = item(4L, "Дрессировочный свисток");
+        hidden.setAvailable(false);
+        index.index(hidden);
+
+        assertEquals(List.of("Аккумуляторная дрель", "Дрель"), index.suggest("дре", 10), "Счётчик названий не обновлён");
+        assertEquals(List.of("Перфоратор"), index.suggest("пер", 10), "Новое название не добавлено");
+        assertTrue(index.suggest("свист", 10).isEmpty(), "Недоступная вещь не должна подсказываться");
+    }
+
+    private static Item item(long id, String name) {
+        return Item.builder().id(id).name(name).description("desc").available(true).build();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.trending;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private final HeavyHitters<String> heavyHitters = new HeavyHitters<>(3, Duration.ofHours(1), clock::get);
+
+    @Test
+    @DisplayName("Частые ключи вытесняют редкие из таблицы кандидатов")
+    void top_returnFrequentKeys_whenManyRareKeys() {
+        for (int i = 0; i < 1000; i++) {
+            heavyHitters.add("rare" + i);
+            if (i % 2 == 0) {
+                heavyHitters.add("дрель");
+            }
+            if (i % 4 == 0) {
+                heavyHitters.add("пила");
+            }
+        }
+        heavyHitters.drain();
+
+        assertEquals(List.of("дрель", "пила"), heavyHitters.top(2), "Неверный топ");
+        assertTrue(heavyHitters.estimate("дрель") >= 500, "Оценка не может быть меньше точного числа");
+    }
+
+    @Test
+    @DisplayName("Старые запросы затухают и уступают новым")
+    void top_preferRecentKeys_whenDecayed() {
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.add("дрель");
+        }
+        heavyHitters.drain();
+        clock.set(Duration.ofHours(5).toMillis());
+        for (int i = 0; i < 10; i++) {
+            heavyHitters.add("пила");
+        }
+        heavyHitters.drain();
+
+        assertEquals(List.of("пила", "дрель"), heavyHitters.top(2), "Старый всплеск должен затухнуть");
+        assertEquals(100 / 32.0, heavyHitters.estimate("дрель"), 0.5, "Оценка должна уменьшиться вдвое за каждый период");
+    }
+
+    @Test
+    @DisplayName("Параллельные добавления учитываются после drain, топ до drain не меняется")
+    void drain_countAllKeys_whenAddedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    heavyHitters.add(i % 2 == 0 ? "дрель" : "rare" + i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(List.of(), heavyHitters.top(1), "До drain снимок топа не меняется");
+        heavyHitters.drain();
+        assertEquals(List.of("дрель"), heavyHitters.top(1), "Неверный топ");
+        assertTrue(heavyHitters.estimate("дрель") >= 4000, "Потеряны параллельные добавления");
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemRequestFeedTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final ItemRequestRepository itemRequestRepository = mock(ItemRequestRepository.class);
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    @DisplayName("Лента отдаёт чужие запросы от новых к старым вместе с ответами")
+    void page_compareResult_whenLoaded() {
+        ItemRequest first = request(1L, 1L, NOW.minusHours(3));
+        ItemRequest second = request(2L, 2L, NOW.minusHours(2));
+        ItemRequest third = request(3L, 1L, NOW.minusHours(1));
+        ItemRequest sameTime = request(4L, 2L, NOW.minusHours(1));
+        ItemRequestFeed feed = feed(10, List.of(sameTime, third, second, first), List.of(item(10L, 2L, first)));
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(feed.page(5L, 0, 10)), "Неверный порядок запросов");
+        assertEquals(List.of(3L, 1L), ids(feed.page(2L, 0, 10)), "Свои запросы не должны попадать в ленту");
+        assertEquals(List.of(1L), ids(feed.page(2L, 1, 10)), "Неверное смещение");
+        assertEquals(List.of(3L, 2L), ids(feed.page(5L, Cursor.of(sameTime.getCreated(), 4L), 2)),
+                "Неверная страница после курсора");
+        assertEquals(List.of(10L), feed.page(5L, 3, 1).orElseThrow().get(0).getItems().stream()
+                .map(ItemDto::getId).collect(Collectors.toList()), "Ответ не приложен к запросу");
+    }
+
+    @Test
+    @DisplayName("Новые запросы, ответы и удаление владельца")
+    void page_compareResult_whenFeedUpdated() {
+        ItemRequest first = request(1L, 1L, NOW.minusHours(2));
+        ItemRequestFeed feed = feed(10, List.of(first), List.of());
+
+        ItemRequest second = request(2L, 2L, NOW.minusHours(1));
+        feed.add(second);
+        feed.index(item(11L, 3L, first));
+        feed.index(item(10L, 2L, first));
+        Item renamed = item(10L, 2L, first);
+        renamed.setName("renamed");
+        feed.index(renamed);
+
+        List<ItemRequestDto> page = feed.page(5L, 0, 10).orElseThrow();
+        assertEquals(List.of(2L, 1L), ids(Optional.of(page)), "Новый запрос должен быть в начале ленты");
+        assertEquals(List.of(10L, 11L), page.get(1).getItems().stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Ответы должны идти по id");
+        assertEquals("renamed", page.get(1).getItems().get(0).getName(), "Изменение вещи не попало в ленту");
+
+        feed.updateOwner(User.builder().id(3L).name("new name").email("new@mail.ru").build());
+        assertEquals("new name", feed.page(5L, 1, 1).orElseThrow().get(0).getItems().get(1).getOwner().getName(),
+                "Изменение владельца не попало в ленту");
+
+        feed.removeOwner(2L);
+        page = feed.page(5L, 0, 10).orElseThrow();
+        assertEquals(List.of(1L), ids(Optional.of(page)), "Запросы удалённого пользователя должны пропасть");
+        assertEquals(List.of(11L), page.get(0).getItems().stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Вещи удалённого пользователя должны пропасть");
+    }
+
+    @Test
+    @DisplayName("Страница за концом неполной ленты читается из базы")
+    void page_empty_whenPageOutsideIncompleteFeed() {
+        ItemRequest first = request(1L, 1L, NOW.minusHours(3));
+        ItemRequest second = request(2L, 1L, NOW.minusHours(2));
+        ItemRequest third = request(3L, 1L, NOW.minusHours(1));
+        ItemRequestFeed feed = feed(2, List.of(third, second, first), List.of());
+
+        assertEquals(2, feed.size(), "Лента не должна превышать max-size");
+        assertEquals(List.of(3L, 2L), ids(feed.page(5L, 0, 2)), "Страница внутри ленты должна отдаваться");
+        assertTrue(feed.page(5L, 1, 2).isEmpty(), "Страница за концом неполной ленты должна читаться из базы");
+
+        ItemRequestFeed complete = feed(10, List.of(second, first), List.of());
+        assertEquals(List.of(), ids(complete.page(5L, 2, 2)), "За концом полной ленты страница пустая");
+        complete.add(request(4L, 1L, NOW));
+        assertEquals(List.of(4L, 2L, 1L), ids(complete.page(5L, 0, 10)), "Новый запрос не попал в ленту");
+    }
+
+    @Test
+    @DisplayName("Перечитывание из базы подхватывает запросы других узлов и пропускает свои запросы смотрящего")
+    void load_compareResult_whenChangedOnOtherNode() {
+        ItemRequest first = request(1L, 1L, NOW.minusHours(4));
+        ItemRequestFeed feed = feed(10, List.of(first), List.of());
+
+        ItemRequest own = request(2L, 2L, NOW.minusHours(3));
+        ItemRequest other = request(3L, 1L, NOW.minusHours(2));
+        ItemRequest ownLatest = request(4L, 2L, NOW.minusHours(1));
+        when(itemRequestRepository.findLatest(any(Pageable.class))).thenReturn(List.of(ownLatest, other, own, first));
+        when(itemRepository.findByRequestInOrderByIdAsc(anyList())).thenReturn(List.of(item(10L, 3L, other)));
+        feed.load();
+
+        assertEquals(4, feed.size(), "Запросы других узлов не попали в ленту");
+        assertEquals(List.of(3L, 1L), ids(feed.page(2L, 0, 10)), "Свои запросы не должны попадать в ленту");
+        assertEquals(List.of(1L), ids(feed.page(2L, 1, 10)), "Смещение должно считать только чужие запросы");
+        assertEquals(List.of(10L), feed.page(2L, 0, 1).orElseThrow().get(0).getItems().stream()
+                .map(ItemDto::getId).collect(Collectors.toList()), "Ответ с другого узла не приложен к запросу");
+        feed.add(other);
+        assertEquals(4, feed.size(), "Повторное добавление запроса не должно его дублировать");
+    }
+
+    @Test
+    @DisplayName("Дочитывание изменений с других узлов без полного перечитывания ленты")
+    void refresh_applyChanges_whenChangedOnOtherNode() {
+        ItemRequest first = request(1L, 1L, NOW.minusHours(3));
+        ItemRequest removed = request(2L, 4L, NOW.minusHours(2));
+        ItemRequestFeed feed = feed(10, List.of(removed, first), List.of(item(10L, 2L, first)));
+
+        ItemRequest other = request(3L, 1L, NOW.minusHours(1));
+        Item renamed = item(10L, 2L, first);
+        renamed.setName("renamed");
+        when(itemRequestRepository.findCreatedSince(any(), any(Pageable.class))).thenReturn(List.of(other, first));
+        when(itemRepository.findAnswersUpdatedSince(any())).thenReturn(List.of(renamed, item(11L, 3L, other)));
+        when(userRepository.findIdsDeletedSince(any())).thenReturn(List.of(4L));
+
+        assertEquals(5, feed.refresh(), "Прочитаны не все изменения");
+        assertEquals(2, feed.size(), "Повторно прочитанный запрос не должен дублироваться");
+        List<ItemRequestDto> page = feed.page(5L, 0, 10).orElseThrow();
+        assertEquals(List.of(3L, 1L), ids(Optional.of(page)), "Новый запрос с другого узла не попал в ленту");
+        assertEquals(List.of(11L), page.get(0).getItems().stream().map(ItemDto::getId).collect(Collectors.toList()),
+                "Ответ на новый запрос не приложен");
+        assertEquals("renamed", page.get(1).getItems().get(0).getName(), "Изменение вещи не попало в ленту");
+        verify(itemRequestRepository, times(1)).findLatest(any(Pageable.class));
+    }
+
+    private ItemRequestFeed feed(int maxSize, List<ItemRequest> requests, List<Item> items) {
+        when(itemRequestRepository.findLatest(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            return requests.subList(0, Math.min(requests.size(), pageable.getPageSize()));
+        });
+        when(itemRepository.findByRequestInOrderByIdAsc(anyList())).thenReturn(items);
+        ItemRequestFeed feed = new ItemRequestFeed(itemRequestRepository, itemRepository, userRepository, new ItemMapper(),
+                maxSize, Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(10));
+        feed.load();
+        return feed;
+    }
+
+    private static List<Long> ids(Optional<List<ItemRequestDto>> page) {
+        return page.orElseThrow().stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+
+    private static ItemRequest request(long id, long ownerId, LocalDateTime created) {
+        return ItemRequest.builder().id(id).owner(User.builder().id(ownerId).build())
+                .description("request" + id).created(created).build();
+    }
+
+    private static Item item(long id, long ownerId, ItemRequest request) {
+        return Item.builder().id(id).name("item" + id).description("desc").available(true)
+                .owner(User.builder().id(ownerId).name("user" + ownerId).build()).request(request).build();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.UserDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Запрос с ответившими вещами читается одним оператором, плюс проверка пользователя, если её нет в кэше.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"shareit.booking.lifecycle.enabled=false", "shareit.user.purge.enabled=false"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemRequestQueryCountTest {
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private ItemRequestController itemRequestController;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Запрос с вещами читается не более чем двумя операторами")
+    void getRequest_fixedStatementCount_whenItemsAnswered() {
+        UserDto requester = userController.add(UserDto.builder().name("requester").email("requester@mail.ru").build());
+        ItemRequestDto request = itemRequestController.createRequest(requester.getId(),
+                RequestDto.builder().description("need a drill").build());
+        for (int i = 0; i < 3; i++) {
+            UserDto owner = userController.add(UserDto.builder().name("owner" + i).email("owner" + i + "@mail.ru").build());
+            itemController.add(owner.getId(), ItemDto.builder().name("drill" + i).description("drill")
+                    .available(true).requestId(request.getId()).build());
+        }
+        UserDto reader = userController.add(UserDto.builder().name("reader").email("reader@mail.ru").build());
+
+        long[] statements = new long[1];
+        ItemRequestDto found = countStatements(statements, () -> itemRequestController.getRequest(reader.getId(), request.getId()));
+
+        assertEquals("need a drill", found.getDescription(), "Неверное описание запроса");
+        assertEquals(3, found.getItems().size(), "Должны вернуться все ответившие вещи");
+        assertEquals("owner0", found.getItems().get(0).getOwner().getName(), "Неверный владелец вещи");
+        assertEquals(request.getId(), found.getItems().get(2).getRequestId(), "Неверный id запроса у вещи");
+        assertTrue(statements[0] <= 2, "Запрос прочитан за " + statements[0] + " операторов");
+
+        countStatements(statements, () -> itemRequestController.getRequest(reader.getId(), request.getId()));
+        assertEquals(1, statements[0], "Повторное чтение должно брать пользователя из кэша");
+    }
+
+    private <T> T countStatements(long[] statements, Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        T result = action.get();
+        statements[0] = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        return result;
+    }
+}
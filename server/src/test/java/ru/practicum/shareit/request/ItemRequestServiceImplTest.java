@@ -6,12 +6,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
-import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.*;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.Cursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,7 +21,10 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemRequestServiceImplTest {
@@ -35,7 +39,8 @@ class ItemRequestServiceImplTest {
     private final ItemMapper itemMapper = new ItemMapper();
 
     private final ItemRequestService service =
-            new ItemRequestServiceImpl(userService, itemRequestRepository, itemRepository, itemRequestMapper, itemMapper);
+            new ItemRequestServiceImpl(userService, itemRequestRepository, itemRepository, itemRequestMapper, itemMapper,
+                    mock(ItemRequestFeed.class));
 
     @Test
     @DisplayName("Вывод всех пользователей from -1")
@@ -139,47 +144,43 @@ class ItemRequestServiceImplTest {
     @Test
     @DisplayName("Вывод запроса по айди")
     void getByIdIteM_compareResult_whenItemsEmptyAndMapper() {
-        when(userService.getById(anyLong()))
-                .thenReturn(User.builder().id(1L).email("user@mail").name("name").build());
-        ItemRequest request = ItemRequest.builder()
-                .id(1L)
-                .created(LocalDateTime.now())
-                .description("desc")
-                .build();
-        when(itemRequestRepository.findById(anyLong()))
-                .thenReturn(Optional.of(request));
-        when(itemRepository.findByRequestInOrderByIdAsc(any()))
-                .thenReturn(List.of());
+        LocalDateTime created = LocalDateTime.now();
+        when(itemRequestRepository.findWithItemsById(1L))
+                .thenReturn(List.of(requestView(1L, "desc", created, null)));
 
         ItemRequestDto requestDto = service.getById(1, 1);
 
         assertNotNull(requestDto, "null не возвращает dto");
-        assertEquals(request.getDescription(), requestDto.getDescription(), "не возвращает desc");
-        assertEquals(request.getId(), requestDto.getId(), "не возвращает id");
+        assertEquals("desc", requestDto.getDescription(), "не возвращает desc");
+        assertEquals(1L, requestDto.getId(), "не возвращает id");
+        assertEquals(created, requestDto.getCreated(), "не возвращает created");
         assertEquals(0, requestDto.getItems().size(), "не возвращает пустой список items");
+        verify(userService).checkExists(1);
+        verify(itemRepository, never()).findByRequestInOrderByIdAsc(any());
     }
 
     @Test
     @DisplayName("Вывод запроса по айди Успешно")
     void getByIdItem_compareResult_whenItemsAndMapper() {
-        when(userService.getById(anyLong()))
-                .thenReturn(User.builder().id(1L).email("user@mail").name("name").build());
-        ItemRequest request = ItemRequest.builder()
-                .id(1L)
-                .created(LocalDateTime.now())
-                .description("desc")
-                .build();
-        when(itemRequestRepository.findById(anyLong()))
-                .thenReturn(Optional.of(request));
-        when(itemRepository.findByRequestInOrderByIdAsc(any()))
-                .thenReturn(List.of(Item.builder().id(1L).build()));
+        LocalDateTime created = LocalDateTime.now();
+        when(itemRequestRepository.findWithItemsById(1L))
+                .thenReturn(List.of(requestView(1L, "desc", created, 2L), requestView(1L, "desc", created, 3L)));
 
         ItemRequestDto requestDto = service.getById(1, 1);
 
-        assertNotNull(requestDto, "null не возвращает dto");
-        assertEquals(request.getDescription(), requestDto.getDescription(), "не возвращает desc");
-        assertEquals(request.getId(), requestDto.getId(), "не возвращает id");
-        assertEquals(1, requestDto.getItems().size(), "не возвращает список items с 1");
+        assertEquals(1L, requestDto.getId(), "не возвращает id");
+        assertEquals(2, requestDto.getItems().size(), "не возвращает список items с 2");
+        assertEquals(3L, requestDto.getItems().get(1).getId(), "не сохраняется порядок items");
+        assertEquals(1L, requestDto.getItems().get(0).getRequestId(), "не возвращает requestId у item");
+        assertEquals(7L, requestDto.getItems().get(0).getOwner().getId(), "не возвращает владельца item");
+    }
+
+    @Test
+    @DisplayName("Вывод несуществующего запроса по айди")
+    void getById_throwParameterNotFoundException_whenRequestMissing() {
+        when(itemRequestRepository.findWithItemsById(anyLong())).thenReturn(List.of());
+
+        assertThrows(ParameterNotFoundException.class, () -> service.getById(1, 5));
     }
 
     @Test
@@ -231,4 +232,93 @@ class ItemRequestServiceImplTest {
         assertEquals(0, requests.get(0).getItems().size(), "не пустой список items");
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Вывод запросов других пользователей по cursor")
+    void getAllItems_compareResult_whenCursor() {
+        LocalDateTime time = LocalDateTime.now();
+        when(userService.getById(anyLong()))
+                .thenReturn(User.builder().id(1L).email("user@mail").name("name").build());
+        when(itemRequestRepository.findByOwnerIdNotBeforeCursor(eq(1L), eq(time), eq(5L), any()))
+                .thenReturn(List.of(ItemRequest.builder().id(4L).description("desc").created(time).build()));
+        when(itemRepository.findByRequestInOrderByIdAsc(any())).thenReturn(List.of());
+
+        List<ItemRequestDto> requests = service.getAll(1, Cursor.of(time, 5L), 1);
+
+        assertEquals(1, requests.size(), "Пустой список");
+        assertEquals(4L, requests.get(0).getId(), "Не тот объект возвращается");
+    }
+
+    @Test
+    @DisplayName("Вывод запросов по cursor без даты")
+    void getAllItems_throwValidationException_whenCursorWithoutTime() {
+        Throwable thrown = assertThrows(ValidationException.class, () -> {
+            service.getAll(1, Cursor.of(5L), 1);
+        });
+
+        assertNotNull(thrown.getMessage());
+    }
+
+    private static ItemRequestView requestView(Long requestId, String description, LocalDateTime created, Long itemId) {
+        return new ItemRequestView() {
+            @Override
+            public Long getRequestId() {
+                return requestId;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return created;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public String getItemName() {
+                return itemId == null ? null : "item" + itemId;
+            }
+
+            @Override
+            public String getItemDescription() {
+                return itemId == null ? null : "desc" + itemId;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return itemId == null ? null : true;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return null;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return null;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return itemId == null ? null : 7L;
+            }
+
+            @Override
+            public String getOwnerName() {
+                return itemId == null ? null : "owner";
+            }
+
+            @Override
+            public String getOwnerEmail() {
+                return itemId == null ? null : "owner@mail";
+            }
+        };
+    }
+}
@@ -9,9 +9,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -100,6 +103,17 @@ class UserControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(Arrays.asList(userDto, userDto1))));
     }
 
+    @Test
+    @DisplayName("Постраничный вывод пользователей")
+    void getUsersPage_returnNextCursor_whenPageFull() throws Exception {
+        when(userService.getAll(null, 1)).thenReturn(List.of(userDto));
+        mvc.perform(
+                        get("/users").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER, Cursor.of(1L).encode()))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
     @Test
     @DisplayName("удаление пользователя")
     void deleteUser_compareResult_whenObjectCorrect() throws Exception {
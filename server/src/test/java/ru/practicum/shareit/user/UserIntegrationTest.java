@@ -1,13 +1,18 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.utils.PaginationUtil;
 
 import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -20,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 public class UserIntegrationTest {
     @Autowired
     private UserController userController;
+    @Autowired
+    private ObjectMapper objectMapper;
     private final UserDto userDtoTestOne = UserDto.builder()
             .id(0L)
             .name("TestName1")
@@ -37,7 +44,7 @@ public class UserIntegrationTest {
         UserDto userDtoOne = userController.add(userDtoTestOne);
         UserDto userDtoTwo = userController.add(userDtoTestTwo);
 
-        List<UserDto> userDtos = userController.getAll();
+        List<UserDto> userDtos = userController.getAll(null, null).getBody();
         assertEquals(2, userDtos.size(), "Размер списка должен быть равен 2.");
         assertEquals(userDtoOne, userDtos.get(0), "Пользователи должны совпадать.");
         assertEquals(userDtoTwo, userDtos.get(1), "Пользователи должны совпадать.");
@@ -95,14 +102,33 @@ public class UserIntegrationTest {
         UserDto userDto = userController.add(userDtoTestTwo);
         userController.deleteUser(1);
 
-        List<UserDto> userDtosOne = userController.getAll();
+        List<UserDto> userDtosOne = userController.getAll(null, null).getBody();
 
         assertEquals(1, userDtosOne.size(), "Размер списка должен быть равен 1.");
         assertEquals(userDto, userDtosOne.get(0), "Пользователи должны совпадать.");
 
         userController.deleteUser(2);
-        List<UserDto> userDtosThree = userController.getAll();
+        List<UserDto> userDtosThree = userController.getAll(null, null).getBody();
 
         assertEquals(0, userDtosThree.size(), "Размер списка должен быть равен 0.");
     }
+
+    @Test
+    @DisplayName("Постраничный вывод и выгрузка пользователей.")
+    void userGetPage_compareResult_whenCursorAndExport() throws Exception {
+        UserDto userDtoOne = userController.add(userDtoTestOne);
+        UserDto userDtoTwo = userController.add(userDtoTestTwo);
+
+        ResponseEntity<List<UserDto>> first = userController.getAll(1, null);
+        assertEquals(List.of(userDtoOne), first.getBody(), "Первая страница должна содержать первого пользователя.");
+        String cursor = first.getHeaders().getFirst(PaginationUtil.NEXT_CURSOR_HEADER);
+        ResponseEntity<List<UserDto>> second = userController.getAll(1, cursor);
+        assertEquals(List.of(userDtoTwo), second.getBody(), "Вторая страница должна содержать второго пользователя.");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userController.export().getBody().writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length, "Выгрузка должна содержать строку на пользователя.");
+        assertEquals(userDtoTwo, objectMapper.readValue(lines[1], UserDto.class), "Пользователи должны совпадать.");
+    }
 }
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.exception.ParameterNotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+@TestPropertySource(properties = {
+        "shareit.user.purge.enabled=false",
+        "shareit.user.purge.batch-size=1",
+        "shareit.booking.lifecycle.enabled=false"
+})
+class UserPurgeSchedulerTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserPurgeScheduler userPurgeScheduler;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    @DisplayName("Удалённый пользователь сразу скрыт, его данные удаляются порциями в фоне")
+    void deleteAsync_hideThenPurge_whenUserHasData() {
+        User deleted = userRepository.save(User.builder().name("deleted").email("deleted@mail").build());
+        User other = userRepository.save(User.builder().name("other").email("other@mail").build());
+        Item deletedItem = itemRepository.save(Item.builder().owner(deleted).name("drill").description("drill")
+                .available(true).build());
+        Item otherItem = itemRepository.save(Item.builder().owner(other).name("saw").description("saw")
+                .available(true).build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().owner(deleted).description("need")
+                .created(now).build());
+        Item answer = itemRepository.save(Item.builder().owner(other).name("ladder").description("ladder")
+                .available(true).request(request).build());
+        bookingRepository.save(Booking.builder().item(deletedItem).booker(other).status(Status.APPROVED)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build());
+        Booking ownBooking = bookingRepository.save(Booking.builder().item(otherItem).booker(deleted).status(Status.WAITING)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build());
+        bookingIntervalIndex.add(ownBooking);
+        commentRepository.save(Comment.builder().item(otherItem).author(deleted).text("good").created(now).build());
+        commentRepository.save(Comment.builder().item(deletedItem).author(other).text("good").created(now).build());
+
+        UserDeletionDto progress = userService.deleteAsync(deleted.getId());
+
+        assertEquals(new UserDeletionDto(deleted.getId(), 2, 2, 1, 1), progress, "Неверный остаток для очистки");
+        assertThrows(ParameterNotFoundException.class, () -> userService.getById(deleted.getId()),
+                "Удалённый пользователь не должен находиться");
+        assertThrows(ParameterNotFoundException.class, () -> itemService.getById(deletedItem.getId(), other.getId()),
+                "Вещь удалённого пользователя не должна находиться");
+        ItemDto otherCard = itemService.getById(otherItem.getId(), other.getId());
+        assertEquals(0, otherCard.getComments().size(), "Комментарии удалённого пользователя не должны показываться");
+        assertNull(otherCard.getNextBooking(), "Бронирования удалённого пользователя не должны показываться");
+        assertTrue(bookingService.getAllByOwner(other.getId(), "ALL", 0, 10).isEmpty(),
+                "Бронирования удалённого пользователя не должны показываться владельцу");
+        assertTrue(bookingService.getAllByUser(other.getId(), "ALL", 0, 10).isEmpty(),
+                "Бронирования вещей удалённого пользователя не должны показываться");
+        assertTrue(itemRequestService.getAll(other.getId(), 0, 10).isEmpty(),
+                "Запросы удалённого пользователя не должны показываться");
+        assertNull(itemService.getById(answer.getId(), other.getId()).getRequestId(),
+                "Ответ на запрос удалённого пользователя должен остаться без запроса");
+        assertNotNull(userService.add(UserDto.builder().name("new").email("deleted@mail").build()).getId(),
+                "Email удалённого пользователя должен освободиться");
+
+        assertEquals(6, userPurgeScheduler.purge(100), "Должны удалиться все строки пользователя");
+        assertFalse(userRepository.existsById(deleted.getId()), "Пользователь должен удалиться");
+        assertThrows(ParameterNotFoundException.class, () -> userService.getDeletion(deleted.getId()),
+                "Завершённое удаление не должно находиться");
+        assertFalse(bookingIntervalIndex.isBusy(otherItem.getId(), now.plusDays(1), now.plusDays(2)),
+                "Бронирование удалённого пользователя должно освободить вещь");
+        assertTrue(itemRepository.existsById(answer.getId()), "Чужая вещь не должна удаляться");
+        assertEquals(0, userPurgeScheduler.purge(100), "Повторная очистка ничего не удаляет");
+    }
+
+    @Test
+    @DisplayName("Откат пометки удалённым не трогает индексы вещей и кэши")
+    void deleteAsync_keepIndexes_whenRolledBack() {
+        UserDto owner = userService.add(UserDto.builder().name("owner").email("rollback@mail").build());
+        ItemDto item = itemService.add(owner.getId(), ItemDto.builder().name("перфоратор").description("перфоратор")
+                .available(true).build());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteAsync(owner.getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(owner.getId(), userService.getById(owner.getId()).getId(), "Пользователь должен остаться");
+        assertEquals(List.of(item.getId()), itemSearchIndex.search("перфоратор", id -> false),
+                "Вещь должна остаться в поиске после отката");
+        userService.deleteAsync(owner.getId());
+        userPurgeScheduler.purge(100);
+    }
+
+    @Test
+    @DisplayName("Очистка выполняется не больше заданного числа порций")
+    void purge_stopAfterMaxBatches_whenMoreRowsLeft() {
+        User deleted = userRepository.save(User.builder().name("deleted").email("batch@mail").build());
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(Item.builder().owner(deleted).name("item").description("item").available(true).build());
+        }
+        userService.deleteAsync(deleted.getId());
+
+        assertEquals(2, userPurgeScheduler.purge(2), "За две порции по одной строке удаляются две вещи");
+        assertEquals(1, userService.getDeletion(deleted.getId()).getItems(), "Должна остаться одна вещь");
+        assertEquals(1, userPurgeScheduler.purge(10), "Должна удалиться оставшаяся вещь");
+        assertThrows(ParameterNotFoundException.class, () -> userService.getDeletion(deleted.getId()),
+                "Завершённое удаление не должно находиться");
+    }
+
+    @Test
+    @DisplayName("Очистка останавливается, когда аренда потеряна")
+    void purge_stop_whenLeaseLost() {
+        User deleted = userRepository.save(User.builder().name("deleted").email("lease@mail").build());
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(Item.builder().owner(deleted).name("item").description("item").available(true).build());
+        }
+        userService.deleteAsync(deleted.getId());
+        AtomicInteger renewals = new AtomicInteger();
+
+        assertEquals(1, userPurgeScheduler.purge(10, () -> renewals.incrementAndGet() == 1),
+                "После потери аренды порции не выполняются");
+        assertEquals(2, renewals.get(), "Аренда должна продлеваться перед каждой порцией");
+        assertEquals(2, userService.getDeletion(deleted.getId()).getItems(), "Должны остаться две вещи");
+        assertEquals(2, userPurgeScheduler.purge(10), "С продлённой арендой очистка доходит до конца");
+    }
+}
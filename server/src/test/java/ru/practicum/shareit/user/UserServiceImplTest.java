@@ -1,18 +1,32 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import ru.practicum.shareit.exception.IncorrectParameterException;
 import ru.practicum.shareit.exception.ParameterNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemCardCache;
+import ru.practicum.shareit.request.ItemRequestFeed;
 import ru.practicum.shareit.user.*;
+import ru.practicum.shareit.utils.Cursor;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -21,7 +35,14 @@ class UserServiceImplTest {
 
     private final UserMapper userMapper = new UserMapper();
 
-    private final UserService userService = new UserServiceImpl(userRepository, userMapper);
+    private final UserService userService = new UserServiceImpl(userRepository, userMapper, mock(ItemCardCache.class),
+            new UserExistenceCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()), new UserIdentityMap(), mock(UserPurgeScheduler.class),
+            mock(ItemRequestFeed.class));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
 
     @Test
     @DisplayName("Передается неверный параметр")
@@ -194,7 +215,59 @@ class UserServiceImplTest {
     @Test
     @DisplayName("Удаление пользователя")
     void deleteUser_compareResult_whenObjectCorrect() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(User.builder().build()));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        userService.delete(1);
+
+        verify(userRepository).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Проверка существования пользователя кэшируется, удаление сбрасывает кэш")
+    void checkExists_queryOnce_whenRepeated() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userService.checkExists(1);
+        userService.checkExists(1);
+        verify(userRepository, times(1)).existsById(1L);
+
         userService.delete(1);
+        when(userRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ParameterNotFoundException.class, () -> userService.checkExists(1),
+                "Удалённый пользователь не должен браться из кэша");
+        assertThrows(ParameterNotFoundException.class, () -> userService.checkExists(2),
+                "Нет исключения для несуществующего пользователя");
+    }
+
+    @Test
+    @DisplayName("Пользователь загружается один раз за HTTP-запрос")
+    void getById_queryOnce_whenSameRequest() {
+        User user = User.builder().id(1L).name("name").email("user@mail").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertSame(user, userService.getById(1));
+        assertSame(user, userService.getUser(1));
+        userService.checkExists(1);
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, never()).existsById(anyLong());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        userService.getById(1);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Постраничный вывод пользователей после курсора")
+    void getAllUsers_compareResult_whenCursor() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(5L), any()))
+                .thenReturn(List.of(User.builder().id(6L).name("name").email("user@mail").build()));
+
+        List<UserDto> users = userService.getAll(Cursor.of(5L), 1);
+
+        assertEquals(1, users.size(), "Неверный размер страницы");
+        assertEquals(6L, users.get(0).getId(), "Страница должна начинаться после курсора");
+        assertThrows(ValidationException.class, () -> userService.getAll(null, 0),
+                "Нет исключения при нулевом размере страницы");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+    @Test
+    @DisplayName("Cursor с датой кодируется и декодируется без потерь")
+    void decode_compareResult_whenTimeAndId() {
+        Cursor cursor = Cursor.of(LocalDateTime.of(2030, 1, 2, 3, 4, 5, 6000), 42L);
+
+        assertEquals(cursor, Cursor.decode(cursor.encode()));
+    }
+
+    @Test
+    @DisplayName("Cursor только с id кодируется и декодируется без потерь")
+    void decode_compareResult_whenOnlyId() {
+        Cursor cursor = Cursor.decode(Cursor.of(7L).encode());
+
+        assertNull(cursor.getTime());
+        assertEquals(7L, cursor.getId());
+    }
+
+    @Test
+    @DisplayName("Cursor поиска хранит релевантность без потерь, прежний формат тоже читается")
+    void decode_compareResult_whenScore() {
+        Cursor cursor = Cursor.of(0.6832449220729795, 9L);
+        String legacy = Base64.getUrlEncoder().withoutPadding().encodeToString("|5".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(cursor, Cursor.decode(cursor.encode()));
+        assertEquals(Cursor.of(5L), Cursor.decode(legacy));
+    }
+
+    @Test
+    @DisplayName("Некорректный cursor")
+    void decode_throwValidationException_whenTokenMalformed() {
+        assertThrows(ValidationException.class, () -> Cursor.decode("not a cursor"));
+        assertThrows(ValidationException.class, () -> Cursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}